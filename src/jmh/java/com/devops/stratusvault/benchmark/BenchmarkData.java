@@ -0,0 +1,96 @@
+package com.devops.stratusvault.benchmark;
+
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Deterministic inputs shared by the benchmarks, so runs on different releases see the same bytes.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 0x5eed_cafeL;
+
+    private static final String[] WORDS = {
+            "storage", "document", "upload", "archive", "invoice", "quarterly", "report", "budget", "meeting",
+            "the", "and", "of", "to", "in", "for", "with", "on", "shared", "project", "draft", "final",
+            "customer", "account", "review", "summary", "deadline", "version", "policy", "contract", "team"};
+
+    private BenchmarkData() {}
+
+    /**
+     * {@code size} bytes that compress the way uploads of {@code contentType} typically do:
+     * prose for text/*, repetitive records for JSON, and incompressible bytes for anything else.
+     */
+    static byte[] payload(String contentType, int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        if (contentType.startsWith("text/")) {
+            return repeatUntil(size, () -> {
+                StringBuilder line = new StringBuilder();
+                int words = 6 + random.nextInt(10);
+                for (int i = 0; i < words; i++) {
+                    line.append(WORDS[random.nextInt(WORDS.length)]).append(i == words - 1 ? ".\n" : " ");
+                }
+                return line.toString();
+            });
+        }
+        if (contentType.equals("application/json")) {
+            int[] id = {0};
+            return repeatUntil(size, () -> "{\"id\":" + (id[0]++) + ",\"name\":\"" + WORDS[random.nextInt(WORDS.length)]
+                    + "\",\"amount\":" + random.nextInt(100_000) / 100.0
+                    + ",\"tags\":[\"" + WORDS[random.nextInt(WORDS.length)] + "\"]},\n");
+        }
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Documents as a listing query returns them: owner fetched, a handful of owners across the page.
+     */
+    static List<Document> documents(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            User user = new User();
+            user.setId(i + 1);
+            user.setFirebaseUid("firebase-uid-" + Long.toHexString(random.nextLong()));
+            user.setEmail("user" + i + "@example.com");
+            owners.add(user);
+        }
+        LocalDateTime uploaded = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Document document = new Document();
+            document.setId(i + 1);
+            document.setFileName(WORDS[random.nextInt(WORDS.length)] + "-" + i + ".pdf");
+            document.setGcsPath(new UUID(random.nextLong(), random.nextLong()) + ".gz");
+            long originalSize = 1024 + random.nextInt(10 * 1024 * 1024);
+            document.setOriginalSize(originalSize);
+            document.setCompressedSize(originalSize / 3);
+            document.setContentType("application/pdf");
+            document.setUploadTimeStamp(uploaded.plusMinutes(i));
+            document.setOwner(owners.get(random.nextInt(owners.size())));
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private static byte[] repeatUntil(int size, Supplier<String> next) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 256);
+        while (out.size() < size) {
+            out.writeBytes(next.get().getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] bytes = out.toByteArray();
+        return (bytes.length == size) ? bytes : Arrays.copyOf(bytes, size);
+    }
+}
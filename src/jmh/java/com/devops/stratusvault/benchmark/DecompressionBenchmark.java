@@ -0,0 +1,92 @@
+package com.devops.stratusvault.benchmark;
+
+import com.devops.stratusvault.compression.CodecSelector;
+import com.devops.stratusvault.compression.SeekableGzipOutputStream;
+import com.devops.stratusvault.service.DocumentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflating a stored gzip object for a full download. {@link #decompressGzip} is what
+ * {@code DocumentService.decompressGzip} does through {@link DocumentMetrics}; {@link #plainGzipInputStream}
+ * is the same without the timing wrapper, and {@link #defaultBuffer} shows what the 64 KiB
+ * buffer buys over the JDK default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecompressionBenchmark {
+
+    // DocumentService.STREAM_BUFFER_SIZE
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    @Param({"text/plain", "application/json"})
+    public String contentType;
+
+    private byte[] stored;
+    private DocumentMetrics metrics;
+    // Stands in for the servlet response; the copy buffer is per download in the controller too
+    private final byte[] sink = new byte[8 * 1024];
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] payload = BenchmarkData.payload(contentType, size);
+        CodecSelector.Choice choice = CodecSelector.choose(contentType, payload, Math.min(payload.length, CodecSelector.SAMPLE_SIZE));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size / 2);
+        try (SeekableGzipOutputStream gzip = new SeekableGzipOutputStream(out, BUFFER_SIZE,
+                SeekableGzipOutputStream.DEFAULT_BLOCK_SIZE, choice.level())) {
+            gzip.write(payload);
+        }
+        stored = out.toByteArray();
+        metrics = new DocumentMetrics(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public long decompressGzip() throws IOException {
+        return drain(metrics.decompress(new ByteArrayInputStream(stored), BUFFER_SIZE));
+    }
+
+    @Benchmark
+    public long plainGzipInputStream() throws IOException {
+        return drain(new GZIPInputStream(new ByteArrayInputStream(stored), BUFFER_SIZE));
+    }
+
+    @Benchmark
+    public long defaultBuffer() throws IOException {
+        return drain(new GZIPInputStream(new ByteArrayInputStream(stored)));
+    }
+
+    private long drain(InputStream content) throws IOException {
+        long total = 0;
+        try (InputStream in = content) {
+            int read;
+            while ((read = in.read(sink)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,101 @@
+package com.devops.stratusvault.benchmark;
+
+import com.devops.stratusvault.config.JacksonConfig;
+import com.devops.stratusvault.dto.DocumentMapper;
+import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.model.Document;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a listing response: {@link DocumentMapper#toResponse} over a page of entities, and Jackson
+ * writing the DTO list with the {@link ObjectMapper} Spring Boot builds from {@link JacksonConfig}.
+ * {@link #serializeWithTypedWriter} resolves the serializer once up front, for comparison with the
+ * per-call lookup in {@link #serialize}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentResponseBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int documents;
+
+    private List<Document> page;
+    private List<DocumentResponseDTO> responses;
+    private ObjectMapper objectMapper;
+    private ObjectWriter listWriter;
+
+    @Setup
+    public void setup() {
+        page = BenchmarkData.documents(documents);
+        responses = page.stream().map(DocumentMapper::toResponse).toList();
+
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().jsonCustomizer().customize(builder);
+        objectMapper = builder.build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DocumentResponseDTO.class));
+    }
+
+    @Benchmark
+    public List<DocumentResponseDTO> toResponse() {
+        return page.stream().map(DocumentMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingSink out = new CountingSink();
+        objectMapper.writeValue(out, responses);
+        return out.count;
+    }
+
+    @Benchmark
+    public long serializeWithTypedWriter() throws IOException {
+        CountingSink out = new CountingSink();
+        listWriter.writeValue(out, responses);
+        return out.count;
+    }
+
+    @Benchmark
+    public long mapAndSerialize() throws IOException {
+        CountingSink out = new CountingSink();
+        objectMapper.writeValue(out, page.stream().map(DocumentMapper::toResponse).toList());
+        return out.count;
+    }
+
+    // Counts instead of buffering, so the body's size does not turn into array copying
+    private static final class CountingSink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.devops.stratusvault.benchmark;
+
+import com.devops.stratusvault.config.FirebaseTokenFilter;
+import com.devops.stratusvault.config.TokenVerifier;
+import com.devops.stratusvault.config.VerifiedToken;
+import com.devops.stratusvault.config.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link FirebaseTokenFilter} with a stub {@link TokenVerifier} in place of
+ * the Firebase signature check, so what remains is the filter itself: header parsing, the
+ * {@link VerifiedTokenCache} lookup (a SHA-256 of the token), populating the security context and
+ * the verification timer.
+ * <ul>
+ *   <li>{@link #noAuthorizationHeader}: baseline for requests that skip verification</li>
+ *   <li>{@link #cachedToken}: a session's repeat requests</li>
+ *   <li>{@link #newToken}: a cache miss on every request, including insertion and eviction</li>
+ *   <li>{@link #invalidToken}: a rejected token, including the 401 response</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenFilterBenchmark {
+
+    // Firebase ID tokens are RS256 JWTs of roughly this length
+    private static final int TOKEN_LENGTH = 950;
+    private static final String INVALID_PREFIX = "invalid.";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private FirebaseTokenFilter filter;
+    private String primedToken;
+    private String tokenBody;
+
+    @State(Scope.Thread)
+    public static class TokenCounter {
+        // Keeps threads' tokens apart when run with -t
+        final String prefix = "eyJ." + UUID.randomUUID() + ".";
+        long next;
+    }
+
+    @Setup
+    public void setup() throws IOException, ServletException {
+        TokenVerifier stub = idToken -> {
+            if (idToken.startsWith(INVALID_PREFIX)) {
+                throw new IllegalArgumentException("Invalid token");
+            }
+            return new VerifiedToken("benchmark-uid", "benchmark@example.com",
+                    Map.of("exp", Instant.now().plusSeconds(3600).getEpochSecond()), Instant.now().plusSeconds(3600));
+        };
+        filter = new FirebaseTokenFilter(new VerifiedTokenCache(stub, 10_000), new SimpleMeterRegistry());
+
+        StringBuilder token = new StringBuilder(TOKEN_LENGTH);
+        SplittableRandom random = new SplittableRandom(42);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        while (token.length() < TOKEN_LENGTH - 20) {
+            token.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        tokenBody = token.toString();
+        primedToken = "eyJ." + tokenBody;
+        // Prime the cache
+        run("Bearer " + primedToken);
+    }
+
+    @Benchmark
+    public int noAuthorizationHeader() throws IOException, ServletException {
+        return run(null);
+    }
+
+    @Benchmark
+    public int cachedToken() throws IOException, ServletException {
+        return run("Bearer " + primedToken);
+    }
+
+    @Benchmark
+    public int newToken(TokenCounter counter) throws IOException, ServletException {
+        return run("Bearer " + counter.prefix + (counter.next++) + "." + tokenBody);
+    }
+
+    @Benchmark
+    public int invalidToken() throws IOException, ServletException {
+        return run("Bearer " + INVALID_PREFIX + tokenBody);
+    }
+
+    private int run(String authorization) throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            // Spring Security's own filters clear the context after each request
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,154 @@
+package com.devops.stratusvault.benchmark;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.compression.CodecSelector;
+import com.devops.stratusvault.compression.SeekableGzipOutputStream;
+import com.devops.stratusvault.service.StoredBlobService;
+import com.google.common.io.CountingOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The upload path of {@code DocumentService.storeContent} against streaming alternatives, reading
+ * from memory and writing to a counting sink so only hashing and compression are measured.
+ * <ul>
+ *   <li>{@link #currentPath}: hash pass over the spooled upload, codec choice from the first block,
+ *       then a second pass through {@link SeekableGzipOutputStream} (or a plain copy when STORED)</li>
+ *   <li>{@link #singlePass}: the same output, hashing while compressing so the input is read once;
+ *       this gives up skipping compression for duplicates</li>
+ *   <li>{@link #seekableGzip} / {@link #plainGzip}: compression alone, with and without the seek
+ *       points, at the level the selector picks</li>
+ * </ul>
+ * Throughput is in operations per second; divide by {@code size} for bytes per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UploadCompressionBenchmark {
+
+    // DocumentService.STREAM_BUFFER_SIZE
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"65536", "1048576", "16777216"})
+    public int size;
+
+    @Param({"text/plain", "application/json", "application/octet-stream"})
+    public String contentType;
+
+    private byte[] payload;
+    private CodecSelector.Choice choice;
+
+    @Setup
+    public void setup() {
+        payload = BenchmarkData.payload(contentType, size);
+        choice = CodecSelector.choose(contentType, payload, Math.min(payload.length, CodecSelector.SAMPLE_SIZE));
+    }
+
+    @Benchmark
+    public long currentPath() throws IOException {
+        byte[] sample = new byte[CodecSelector.SAMPLE_SIZE];
+        int sampleLength;
+        String contentHash;
+        try (InputStream in = new ByteArrayInputStream(payload)) {
+            sampleLength = in.readNBytes(sample, 0, sample.length);
+            contentHash = StoredBlobService.sha256Hex(new SequenceInputStream(
+                    new ByteArrayInputStream(sample, 0, sampleLength), in), BUFFER_SIZE);
+        }
+        CodecSelector.Choice codec = CodecSelector.choose(contentType, sample, sampleLength);
+        try (InputStream in = new ByteArrayInputStream(payload)) {
+            return write(in, codec) + contentHash.length();
+        }
+    }
+
+    @Benchmark
+    public long singlePass() throws IOException {
+        MessageDigest digest = StoredBlobService.newSha256();
+        try (InputStream in = new DigestInputStream(new ByteArrayInputStream(payload), digest)) {
+            byte[] sample = new byte[CodecSelector.SAMPLE_SIZE];
+            int sampleLength = in.readNBytes(sample, 0, sample.length);
+            CodecSelector.Choice codec = CodecSelector.choose(contentType, sample, sampleLength);
+            long written = write(new SequenceInputStream(new ByteArrayInputStream(sample, 0, sampleLength), in), codec);
+            return written + HexFormat.of().formatHex(digest.digest()).length();
+        }
+    }
+
+    @Benchmark
+    public long seekableGzip() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream(OutputStream.nullOutputStream());
+        try (SeekableGzipOutputStream gzip = new SeekableGzipOutputStream(sink, BUFFER_SIZE,
+                SeekableGzipOutputStream.DEFAULT_BLOCK_SIZE, gzipLevel())) {
+            copy(new ByteArrayInputStream(payload), gzip);
+        }
+        return sink.getCount();
+    }
+
+    @Benchmark
+    public long plainGzip() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream(OutputStream.nullOutputStream());
+        try (LeveledGzipOutputStream gzip = new LeveledGzipOutputStream(sink, gzipLevel())) {
+            copy(new ByteArrayInputStream(payload), gzip);
+        }
+        return sink.getCount();
+    }
+
+    // Mirrors DocumentService.writeBlob
+    private static long write(InputStream in, CodecSelector.Choice codec) throws IOException {
+        CountingOutputStream sink = new CountingOutputStream(OutputStream.nullOutputStream());
+        if (codec.codec() == Codec.STORED) {
+            try (OutputStream out = sink) {
+                copy(in, out);
+            }
+            return sink.getCount();
+        }
+        try (SeekableGzipOutputStream gzip = new SeekableGzipOutputStream(sink, BUFFER_SIZE,
+                SeekableGzipOutputStream.DEFAULT_BLOCK_SIZE, codec.level())) {
+            copy(in, gzip);
+            gzip.finish();
+            return gzip.getCompressedSize() + gzip.getSeekIndex().encode().length;
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    // Incompressible payloads are STORED by the selector; compress them at the fast level anyway
+    private int gzipLevel() {
+        return (choice.codec() == Codec.GZIP) ? choice.level() : Deflater.BEST_SPEED;
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package com.devops.stratusvault.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a running server (normally {@link LoadTestServer}) with a mix of uploads, listings, shares
+ * and downloads from a fixed population of users, then reports per-operation p50/p99 latency,
+ * throughput and the server's heap high-water mark.
+ * <p>
+ * Every user first uploads one document, so there is something to list, share and download. A
+ * warmup phase then runs the mix and is discarded; only the measurement phase is reported. Each
+ * upload starts with a unique line, so content deduplication does not turn uploads into no-ops.
+ * The heap figure is the largest sum of {@code jvm_memory_used_bytes{area="heap"}} seen on the
+ * server's Prometheus endpoint, polled every {@link HeapSampler#INTERVAL}.
+ * <p>
+ * Options, all {@code --name=value}: see {@link Options#parse}.
+ */
+public final class LoadGenerator {
+
+    enum Operation { UPLOAD, LIST, SHARE, DOWNLOAD }
+
+    // Not an HTTP status; the operation had nothing to act on yet (e.g. no document to share)
+    private static final int SKIPPED = 0;
+    private static final int MAX_TRACKED_DOCUMENTS = 500;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+    private static final String BOUNDARY = "stratusvault-loadtest-boundary";
+
+    private final Options options;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final Map<Integer, byte[]> textPayloads = new HashMap<>();
+    private final Map<Integer, byte[]> binaryPayloads = new HashMap<>();
+    private final AtomicLong uploadSequence = new AtomicLong();
+
+    private LoadGenerator(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (int i = 1; i <= options.users(); i++) {
+            users.add(new VirtualUser("loadtest-user-%05d".formatted(i)));
+        }
+        for (int size : options.fileSizes()) {
+            textPayloads.put(size, textPayload(size));
+            byte[] binary = new byte[size];
+            new SplittableRandom(size).nextBytes(binary);
+            binaryPayloads.put(size, binary);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadGenerator generator = new LoadGenerator(options);
+        Report report = generator.run();
+        report.print();
+        if (options.report() != null) {
+            report.write(options.report(), generator.objectMapper);
+            System.out.println("Report written to " + options.report().toAbsolutePath());
+        }
+    }
+
+    private Report run() throws Exception {
+        checkServer();
+        System.out.printf("Seeding: one upload for each of %d users%n", users.size());
+        seed();
+
+        try (HeapSampler heap = new HeapSampler(client, options.metricsUrl())) {
+            heap.start();
+            if (!options.warmup().isZero()) {
+                System.out.printf("Warmup: %s at concurrency %d%n", options.warmup(), options.concurrency());
+                runPhase(options.warmup());
+            }
+            heap.reset();
+            System.out.printf("Measuring: %s at concurrency %d%n", options.duration(), options.concurrency());
+            Phase measured = runPhase(options.duration());
+            return new Report(options, measured, heap.highWaterBytes());
+        }
+    }
+
+    private void checkServer() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(authorized(users.get(0), "/api/me").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/me returned " + response.statusCode()
+                    + "; is the server running with the loadtest profile?");
+        }
+    }
+
+    private void seed() throws InterruptedException, ExecutionException {
+        try (ExecutorService executor = Executors.newFixedThreadPool(options.concurrency(), Thread.ofVirtual().factory())) {
+            List<Future<Integer>> uploads = new ArrayList<>();
+            for (VirtualUser user : users) {
+                uploads.add(executor.submit(() -> upload(user, new WorkerStats())));
+            }
+            for (Future<Integer> upload : uploads) {
+                int status = upload.get();
+                if (status != 201) {
+                    throw new IllegalStateException("Seed upload failed with status " + status);
+                }
+            }
+        }
+    }
+
+    private Phase runPhase(Duration duration) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<WorkerStats>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                workers.add(executor.submit(() -> work(deadline)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        WorkerStats total = new WorkerStats();
+        for (Future<WorkerStats> worker : workers) {
+            total.add(worker.get());
+        }
+        return new Phase(total, elapsed);
+    }
+
+    private WorkerStats work(long deadline) {
+        WorkerStats stats = new WorkerStats();
+        while (System.nanoTime() < deadline) {
+            Operation operation = options.pick(ThreadLocalRandom.current().nextInt(options.mixTotal()));
+            VirtualUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+            long start = System.nanoTime();
+            try {
+                int status = switch (operation) {
+                    case UPLOAD -> upload(user, stats);
+                    case LIST -> list(user, stats);
+                    case SHARE -> share(user);
+                    case DOWNLOAD -> download(user, stats);
+                };
+                long elapsed = System.nanoTime() - start;
+                if (status == SKIPPED) {
+                    continue;
+                }
+                if (status >= 200 && status < 300) {
+                    stats.latencies.get(operation).add(elapsed);
+                } else {
+                    stats.error(operation, "HTTP " + status);
+                }
+            } catch (IOException e) {
+                stats.error(operation, e.getClass().getSimpleName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return stats;
+    }
+
+    private int upload(VirtualUser user, WorkerStats stats) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = options.fileSizes().get(random.nextInt(options.fileSizes().size()));
+        boolean text = random.nextDouble() < options.textRatio();
+        long sequence = uploadSequence.incrementAndGet();
+
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-" + sequence + (text ? ".txt" : ".bin") + "\"\r\n"
+                + "Content-Type: " + (text ? "text/plain" : "application/octet-stream") + "\r\n\r\n";
+        byte[] unique = ("upload " + sequence + " by " + user.uid + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] payload = text ? textPayloads.get(size) : binaryPayloads.get(size);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        List<byte[]> parts = List.of(head.getBytes(StandardCharsets.US_ASCII), unique, payload, tail);
+
+        HttpRequest request = authorized(user, "/api/documents/upload")
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(parts))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        stats.bytesUploaded += unique.length + payload.length;
+        if (response.statusCode() == 201) {
+            user.addOwned(objectMapper.readTree(response.body()).path("id").asLong());
+        }
+        return response.statusCode();
+    }
+
+    private int list(VirtualUser user, WorkerStats stats) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(authorized(user, "/api/documents?limit=50").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        stats.bytesDownloaded += response.body().length;
+        return response.statusCode();
+    }
+
+    private int share(VirtualUser owner) throws IOException, InterruptedException {
+        long documentId = owner.randomOwned();
+        if (documentId < 0 || users.size() < 2) {
+            return SKIPPED;
+        }
+        VirtualUser recipient;
+        do {
+            recipient = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        } while (recipient == owner);
+
+        String body = objectMapper.writeValueAsString(Map.of("email", recipient.email));
+        HttpRequest request = authorized(owner, "/api/documents/" + documentId + "/share")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 200) {
+            recipient.addVisible(documentId);
+        }
+        return response.statusCode();
+    }
+
+    private int download(VirtualUser user, WorkerStats stats) throws IOException, InterruptedException {
+        long documentId = user.randomVisible();
+        if (documentId < 0) {
+            return SKIPPED;
+        }
+        HttpRequest.Builder request = authorized(user, "/api/documents/" + documentId + "/download").GET();
+        if (options.acceptGzip()) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        // Read to the end: the latency of a download includes streaming the body
+        try (InputStream body = response.body()) {
+            stats.bytesDownloaded += body.transferTo(OutputStream.nullOutputStream());
+        }
+        return response.statusCode();
+    }
+
+    private HttpRequest.Builder authorized(VirtualUser user, String path) {
+        return HttpRequest.newBuilder(options.baseUrl().resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + LoadTestConfig.TOKEN_PREFIX + user.uid);
+    }
+
+    private static byte[] textPayload(int size) {
+        String[] words = {"storage", "document", "quarterly", "report", "the", "and", "of", "shared", "draft",
+                "customer", "account", "review", "summary", "version", "policy", "contract", "team", "budget"};
+        SplittableRandom random = new SplittableRandom(size);
+        StringBuilder text = new StringBuilder(size + 64);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return Arrays.copyOf(text.toString().getBytes(StandardCharsets.US_ASCII), size);
+    }
+
+    /**
+     * Command line options.
+     *
+     * @param mix relative weights of the operations
+     */
+    record Options(URI baseUrl, URI metricsUrl, int users, int concurrency, Duration warmup, Duration duration,
+                   Map<Operation, Integer> mix, List<Integer> fileSizes, double textRatio, boolean acceptGzip,
+                   Path report) {
+
+        private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+        static {
+            DEFAULTS.put("base-url", "http://localhost:8080");
+            DEFAULTS.put("metrics-url", "http://localhost:8081/actuator/prometheus");
+            DEFAULTS.put("users", "100");
+            DEFAULTS.put("concurrency", "32");
+            DEFAULTS.put("warmup", "15s");
+            DEFAULTS.put("duration", "60s");
+            DEFAULTS.put("mix", "upload=20,list=40,share=10,download=30");
+            DEFAULTS.put("file-sizes", "16KB,256KB,2MB");
+            DEFAULTS.put("text-ratio", "0.7");
+            DEFAULTS.put("accept-gzip", "false");
+            DEFAULTS.put("report", "target/loadtest-report.json");
+        }
+
+        /**
+         * Parses {@code --name=value} arguments; every option has a default (see {@code DEFAULTS}).
+         * {@code --report=} with no value skips the JSON report.
+         */
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0 || !DEFAULTS.containsKey(arg.substring(2, equals))) {
+                    throw new IllegalArgumentException("Unknown argument " + arg + "; options (with defaults): " + DEFAULTS);
+                }
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String entry : values.get("mix").split(",")) {
+                String[] weight = entry.trim().split("=", 2);
+                mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+            }
+            List<Integer> fileSizes = Arrays.stream(values.get("file-sizes").split(","))
+                    .map(size -> Math.toIntExact(DataSize.parse(size.trim()).toBytes()))
+                    .toList();
+            String report = values.get("report");
+
+            Options options = new Options(URI.create(values.get("base-url")), URI.create(values.get("metrics-url")),
+                    Integer.parseInt(values.get("users")), Integer.parseInt(values.get("concurrency")),
+                    DurationStyle.detectAndParse(values.get("warmup")), DurationStyle.detectAndParse(values.get("duration")),
+                    mix, fileSizes, Double.parseDouble(values.get("text-ratio")),
+                    Boolean.parseBoolean(values.get("accept-gzip")), report.isBlank() ? null : Path.of(report));
+            if (options.users() < 1 || options.concurrency() < 1 || options.mixTotal() <= 0 || fileSizes.isEmpty()) {
+                throw new IllegalArgumentException("users, concurrency, mix and file-sizes must be positive");
+            }
+            return options;
+        }
+
+        int mixTotal() {
+            return mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        Operation pick(int roll) {
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("roll outside the mix");
+        }
+    }
+
+    /**
+     * A user of the system and the documents it knows it can download. Lists are capped; once full
+     * a random entry is replaced, so picks keep spreading over recent and older documents.
+     */
+    private static final class VirtualUser {
+        final String uid;
+        final String email;
+        private final List<Long> owned = new ArrayList<>();
+        private final List<Long> visible = new ArrayList<>();
+
+        VirtualUser(String uid) {
+            this.uid = uid;
+            this.email = LoadTestConfig.emailOf(uid);
+        }
+
+        synchronized void addOwned(long documentId) {
+            track(owned, documentId);
+            track(visible, documentId);
+        }
+
+        synchronized void addVisible(long documentId) {
+            track(visible, documentId);
+        }
+
+        synchronized long randomOwned() {
+            return owned.isEmpty() ? -1 : owned.get(ThreadLocalRandom.current().nextInt(owned.size()));
+        }
+
+        synchronized long randomVisible() {
+            return visible.isEmpty() ? -1 : visible.get(ThreadLocalRandom.current().nextInt(visible.size()));
+        }
+
+        private static void track(List<Long> documents, long documentId) {
+            if (documents.size() < MAX_TRACKED_DOCUMENTS) {
+                documents.add(documentId);
+            } else {
+                documents.set(ThreadLocalRandom.current().nextInt(documents.size()), documentId);
+            }
+        }
+    }
+
+    /**
+     * One worker's measurements; merged once the phase is over, so recording needs no locking.
+     */
+    private static final class WorkerStats {
+        final Map<Operation, LongList> latencies = new EnumMap<>(Operation.class);
+        final Map<String, Long> errors = new TreeMap<>();
+        final Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        long bytesUploaded;
+        long bytesDownloaded;
+
+        WorkerStats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LongList());
+                errorCounts.put(operation, 0L);
+            }
+        }
+
+        void error(Operation operation, String kind) {
+            errorCounts.merge(operation, 1L, Long::sum);
+            errors.merge(operation.name().toLowerCase(Locale.ROOT) + " " + kind, 1L, Long::sum);
+        }
+
+        void add(WorkerStats other) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).addAll(other.latencies.get(operation));
+                errorCounts.merge(operation, other.errorCounts.get(operation), Long::sum);
+            }
+            other.errors.forEach((kind, count) -> errors.merge(kind, count, Long::sum));
+            bytesUploaded += other.bytesUploaded;
+            bytesDownloaded += other.bytesDownloaded;
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private record Phase(WorkerStats stats, long elapsedNanos) {}
+
+    private record Report(Options options, Phase phase, long heapHighWaterBytes) {
+
+        void print() {
+            double seconds = phase.elapsedNanos() / 1e9;
+            System.out.println();
+            System.out.printf("%-10s %10s %8s %10s %10s %10s %10s%n", "operation", "count", "errors", "ops/s",
+                    "p50 ms", "p99 ms", "max ms");
+            long total = 0;
+            for (Operation operation : Operation.values()) {
+                long[] sorted = phase.stats().latencies.get(operation).sorted();
+                total += sorted.length;
+                System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", operation.name().toLowerCase(Locale.ROOT),
+                        sorted.length, phase.stats().errorCounts.get(operation), sorted.length / seconds,
+                        millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                        millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+            }
+            System.out.printf("%nThroughput: %.1f ops/s over %.1f s; uploaded %.1f MiB/s, downloaded %.1f MiB/s%n",
+                    total / seconds, seconds, phase.stats().bytesUploaded / seconds / (1 << 20),
+                    phase.stats().bytesDownloaded / seconds / (1 << 20));
+            System.out.println("Server heap high-water: " + (heapHighWaterBytes < 0
+                    ? "n/a (metrics endpoint unreachable)" : "%.1f MiB".formatted(heapHighWaterBytes / (double) (1 << 20))));
+            if (!phase.stats().errors.isEmpty()) {
+                System.out.println("Errors: " + phase.stats().errors);
+            }
+        }
+
+        void write(Path path, ObjectMapper objectMapper) throws IOException {
+            double seconds = phase.elapsedNanos() / 1e9;
+            Map<String, Object> operations = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) {
+                long[] sorted = phase.stats().latencies.get(operation).sorted();
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("count", sorted.length);
+                row.put("errors", phase.stats().errorCounts.get(operation));
+                row.put("opsPerSecond", sorted.length / seconds);
+                row.put("p50Millis", millis(percentile(sorted, 0.50)));
+                row.put("p99Millis", millis(percentile(sorted, 0.99)));
+                row.put("maxMillis", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+                operations.put(operation.name().toLowerCase(Locale.ROOT), row);
+            }
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("users", options.users());
+            settings.put("concurrency", options.concurrency());
+            settings.put("warmupSeconds", options.warmup().toSeconds());
+            settings.put("durationSeconds", options.duration().toSeconds());
+            settings.put("mix", options.mix());
+            settings.put("fileSizes", options.fileSizes());
+            settings.put("textRatio", options.textRatio());
+            settings.put("acceptGzip", options.acceptGzip());
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("settings", settings);
+            report.put("elapsedSeconds", seconds);
+            report.put("operations", operations);
+            report.put("bytesUploaded", phase.stats().bytesUploaded);
+            report.put("bytesDownloaded", phase.stats().bytesDownloaded);
+            report.put("heapHighWaterBytes", heapHighWaterBytes);
+            report.put("errors", phase.stats().errors);
+
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+
+    /**
+     * Polls the server's Prometheus endpoint and keeps the largest total heap use seen.
+     */
+    private static final class HeapSampler implements AutoCloseable {
+        static final Duration INTERVAL = Duration.ofMillis(250);
+        private static final String HEAP_USED = "jvm_memory_used_bytes{";
+
+        private final HttpClient client;
+        private final URI metricsUrl;
+        private volatile long highWater = -1;
+        private volatile boolean running = true;
+        private Thread thread;
+
+        HeapSampler(HttpClient client, URI metricsUrl) {
+            this.client = client;
+            this.metricsUrl = metricsUrl;
+        }
+
+        void start() {
+            thread = Thread.ofPlatform().daemon().name("heap-sampler").start(() -> {
+                while (running) {
+                    sample();
+                    try {
+                        Thread.sleep(INTERVAL);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        void reset() {
+            highWater = -1;
+        }
+
+        long highWaterBytes() {
+            sample();
+            return highWater;
+        }
+
+        private void sample() {
+            try {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(metricsUrl).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    return;
+                }
+                long used = 0;
+                for (String line : response.body().split("\n")) {
+                    if (line.startsWith(HEAP_USED) && line.contains("area=\"heap\"")) {
+                        used += (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                    }
+                }
+                highWater = Math.max(highWater, used);
+            } catch (IOException | RuntimeException e) {
+                // Leaves the high-water mark as it was; reported as n/a if no sample ever succeeds
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
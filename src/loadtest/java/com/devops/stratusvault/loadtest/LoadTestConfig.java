@@ -0,0 +1,41 @@
+package com.devops.stratusvault.loadtest;
+
+import com.devops.stratusvault.config.TokenVerifier;
+import com.devops.stratusvault.config.VerifiedToken;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Stand-in for Firebase under the loadtest profile. A bearer token {@code loadtest:<uid>} is
+ * accepted as user {@code <uid>} with the email {@link #emailOf}; anything else is rejected. Tokens
+ * still go through {@code VerifiedTokenCache}, so the filter does the same work as in production
+ * minus the signature check.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    static final String TOKEN_PREFIX = "loadtest:";
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(1);
+
+    @Bean
+    public TokenVerifier tokenVerifier() {
+        return idToken -> {
+            if (!idToken.startsWith(TOKEN_PREFIX) || idToken.length() == TOKEN_PREFIX.length()) {
+                throw new IllegalArgumentException("Not a load test token");
+            }
+            String uid = idToken.substring(TOKEN_PREFIX.length());
+            Instant expiresAt = Instant.now().plus(TOKEN_LIFETIME);
+            return new VerifiedToken(uid, emailOf(uid), Map.of("exp", expiresAt.getEpochSecond()), expiresAt);
+        };
+    }
+
+    static String emailOf(String uid) {
+        return uid + "@loadtest.invalid";
+    }
+}
@@ -0,0 +1,61 @@
+package com.devops.stratusvault.loadtest;
+
+import com.devops.stratusvault.StratusvaultApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the application with nothing outside this JVM but a throwaway Postgres: an embedded
+ * PostgreSQL server (the repositories rely on Postgres SQL such as {@code ON CONFLICT} and
+ * {@code SKIP LOCKED}, so H2 would not do), blobs in a temp directory through the local storage
+ * backend, and the {@link LoadTestConfig} token stub. Both the database and the blobs are deleted
+ * on exit, so every run starts from an empty system.
+ * <p>
+ * Extra arguments are passed to Spring, e.g. {@code --spring.datasource.hikari.maximum-pool-size=20}.
+ * Postgres will not run as root.
+ */
+public final class LoadTestServer {
+
+    private LoadTestServer() {}
+
+    public static void main(String[] args) throws IOException {
+        Path blobRoot = Files.createTempDirectory("stratusvault-loadtest-blobs");
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .start();
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--app.storage.local.root=" + blobRoot));
+        // Caller's arguments come last so they can override the above
+        arguments.addAll(List.of(args));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StratusvaultApplication.class)
+                .profiles("loadtest")
+                .run(arguments.toArray(String[]::new));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            context.close();
+            try {
+                postgres.close();
+            } catch (IOException ignored) {
+                // the data directory is temporary either way
+            }
+            try {
+                FileSystemUtils.deleteRecursively(blobRoot);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }, "loadtest-shutdown"));
+    }
+}
@@ -0,0 +1,30 @@
+#!/usr/bin/env sh
+# Offline capacity run on one box: starts LoadTestServer (embedded Postgres, local-disk blobs, stub
+# auth), waits until it is healthy, runs LoadGenerator against it and stops the server again.
+#
+#   src/loadtest/run.sh --concurrency=64 --duration=120s
+#
+# Generator options are passed through (see LoadGenerator.Options). SERVER_JAVA_OPTS sets the server
+# JVM flags (default -Xms1g -Xmx1g, so heap numbers are comparable between runs). Postgres refuses to
+# run as root, so run this as a regular user.
+set -eu
+
+cd "$(dirname "$0")/../.."
+./mvnw -q -Ploadtest test-compile dependency:build-classpath -Dmdep.outputFile=target/loadtest.classpath
+CLASSPATH="target/test-classes:target/classes:$(cat target/loadtest.classpath)"
+export CLASSPATH
+
+java ${SERVER_JAVA_OPTS:--Xms1g -Xmx1g} com.devops.stratusvault.loadtest.LoadTestServer > target/loadtest-server.log 2>&1 &
+SERVER_PID=$!
+trap 'kill $SERVER_PID 2>/dev/null; wait $SERVER_PID 2>/dev/null || true' EXIT INT TERM
+
+echo "Waiting for the server (log: target/loadtest-server.log)"
+until curl -sf "http://localhost:${MANAGEMENT_PORT:-8081}/actuator/health" > /dev/null; do
+    if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+        echo "Server exited during startup; see target/loadtest-server.log" >&2
+        exit 1
+    fi
+    sleep 1
+done
+
+java com.devops.stratusvault.loadtest.LoadGenerator "$@"
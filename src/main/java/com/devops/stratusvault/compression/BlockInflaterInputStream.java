@@ -0,0 +1,27 @@
+package com.devops.stratusvault.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Inflates raw deflate data that starts at a {@link SeekableGzipOutputStream} block boundary,
+ * i.e. with no gzip header in front of it.
+ */
+public class BlockInflaterInputStream extends InflaterInputStream {
+
+    public BlockInflaterInputStream(InputStream in, int bufferSize) {
+        super(in, new Inflater(true), bufferSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            // We supplied the Inflater, so the superclass won't release its native memory
+            inf.end();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.devops.stratusvault.compression;
+
+/**
+ * How a blob's bytes are encoded at rest. Persisted by name on documents and blobs; a missing value
+ * means {@link #GZIP}, which is what every object was before codecs were selectable.
+ */
+public enum Codec {
+    /** Bytes stored as uploaded. Used for content that doesn't compress. */
+    STORED,
+    /** Single-member gzip written by {@link SeekableGzipOutputStream} (or assembled from segments). */
+    GZIP;
+
+    /**
+     * Suffix for newly written object keys, so a bucket listing shows what each object holds.
+     */
+    public String keySuffix() {
+        return (this == GZIP) ? ".gz" : "";
+    }
+
+    public static Codec orDefault(Codec codec) {
+        return (codec == null) ? GZIP : codec;
+    }
+}
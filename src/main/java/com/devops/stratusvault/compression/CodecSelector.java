@@ -0,0 +1,97 @@
+package com.devops.stratusvault.compression;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Picks the at-rest codec for an upload from its declared content type and a sample of its first
+ * bytes, so already-compressed media isn't deflated for nothing on upload and inflated again on
+ * every download.
+ * <p>
+ * Decision order: known compressed formats are stored as-is; otherwise the sample is trial-deflated
+ * at the fastest level and stored if it saves less than {@code MIN_SAVINGS}; compressible text gets
+ * the default gzip level and other compressible binaries the fastest one.
+ */
+public final class CodecSelector {
+
+    public record Choice(Codec codec, int level) {}
+
+    public static final int SAMPLE_SIZE = 64 * 1024;
+
+    private static final Choice STORED = new Choice(Codec.STORED, Deflater.NO_COMPRESSION);
+    private static final Choice GZIP_TEXT = new Choice(Codec.GZIP, Deflater.DEFAULT_COMPRESSION);
+    private static final Choice GZIP_FAST = new Choice(Codec.GZIP, Deflater.BEST_SPEED);
+
+    // Below this the CPU isn't worth it: every download would pay to inflate it again
+    private static final double MIN_SAVINGS = 0.10;
+
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/avif", "image/heic", "image/heif",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/vnd.rar", "application/x-bzip2", "application/x-xz",
+            "application/zstd", "application/epub+zip", "application/java-archive",
+            "font/woff", "font/woff2");
+
+    // PCM audio is the exception among otherwise-compressed audio/* types
+    private static final Set<String> UNCOMPRESSED_AUDIO = Set.of(
+            "audio/wav", "audio/x-wav", "audio/wave", "audio/aiff", "audio/x-aiff");
+
+    private static final Set<String> TEXT_TYPES = Set.of(
+            "application/json", "application/xml", "application/javascript", "application/x-ndjson",
+            "application/sql", "application/x-yaml", "application/yaml");
+
+    private CodecSelector() {}
+
+    public static Choice choose(String contentType, byte[] sample, int sampleLength) {
+        String type = normalize(contentType);
+        if (isKnownCompressed(type)) {
+            return STORED;
+        }
+        if (sampleLength > 0 && trialSavings(sample, sampleLength) < MIN_SAVINGS) {
+            return STORED;
+        }
+        return isText(type) ? GZIP_TEXT : GZIP_FAST;
+    }
+
+    private static boolean isKnownCompressed(String type) {
+        if (type.isEmpty() || UNCOMPRESSED_AUDIO.contains(type)) {
+            return false;
+        }
+        if (COMPRESSED_TYPES.contains(type) || type.startsWith("video/") || type.startsWith("audio/")) {
+            return true;
+        }
+        // Office Open XML and OpenDocument files are zip containers
+        return type.startsWith("application/vnd.openxmlformats-officedocument.")
+                || type.startsWith("application/vnd.oasis.opendocument.");
+    }
+
+    private static boolean isText(String type) {
+        return type.startsWith("text/") || TEXT_TYPES.contains(type) || type.endsWith("+json") || type.endsWith("+xml");
+    }
+
+    private static double trialSavings(byte[] sample, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+            byte[] out = new byte[8 * 1024];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(out);
+            }
+            return 1.0 - (double) compressed / length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String normalize(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = (semicolon >= 0) ? contentType.substring(0, semicolon) : contentType;
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,146 @@
+package com.devops.stratusvault.compression;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Raw deflate output for one piece of a larger gzip object that is assembled later (see
+ * {@link GzipSegments}).
+ * <p>
+ * Like {@link SeekableGzipOutputStream} the deflater is full-flushed every {@code blockSize}
+ * uncompressed bytes, but the segment is also ended with a full flush instead of a final block, so
+ * segments can be concatenated byte for byte. Block start offsets are relative to the start of the
+ * segment, and the CRC-32 of the uncompressed input is tracked for the gzip trailer.
+ */
+public class DeflateSegmentOutputStream extends DeflaterOutputStream {
+
+    private final int blockSize;
+    private final CRC32 crc = new CRC32();
+    private long[] blockOffsets = new long[16];
+    private int blockCount;
+    private int bytesInBlock;
+    private long uncompressedSize;
+    private long compressedSize;
+    private boolean finished;
+
+    public DeflateSegmentOutputStream(OutputStream out, int bufferSize, int blockSize) {
+        this(out, bufferSize, blockSize, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public DeflateSegmentOutputStream(OutputStream out, int bufferSize, int blockSize, int level) {
+        super(new ByteCounter(out), new Deflater(level, true), bufferSize);
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Segment already finished");
+        }
+        while (len > 0) {
+            if (bytesInBlock == 0) {
+                addBlockOffset(((ByteCounter) out).count);
+            }
+            int chunk = Math.min(len, blockSize - bytesInBlock);
+            super.write(b, off, chunk);
+            crc.update(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+            bytesInBlock += chunk;
+            uncompressedSize += chunk;
+            if (bytesInBlock == blockSize) {
+                fullFlush();
+                bytesInBlock = 0;
+            }
+        }
+    }
+
+    /**
+     * Ends the segment on a byte boundary without writing a final deflate block.
+     */
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (bytesInBlock > 0) {
+            fullFlush();
+        }
+        finished = true;
+        compressedSize = ((ByteCounter) out).count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            // We supplied the Deflater, so the superclass won't release its native memory
+            def.end();
+        }
+    }
+
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    /**
+     * Size of the segment in bytes. Only meaningful once {@link #finish()} has been called.
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public long getCrc32() {
+        return crc.getValue();
+    }
+
+    /**
+     * Start offset of every block in this segment, relative to the first byte of the segment.
+     */
+    public long[] getBlockOffsets() {
+        return Arrays.copyOf(blockOffsets, blockCount);
+    }
+
+    private void fullFlush() throws IOException {
+        int len;
+        while ((len = def.deflate(buf, 0, buf.length, Deflater.FULL_FLUSH)) > 0) {
+            out.write(buf, 0, len);
+            if (len < buf.length) {
+                break;
+            }
+        }
+    }
+
+    private void addBlockOffset(long offset) {
+        if (blockCount == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+        }
+        blockOffsets[blockCount++] = offset;
+    }
+
+    private static final class ByteCounter extends FilterOutputStream {
+        private long count;
+
+        ByteCounter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.devops.stratusvault.compression;
+
+/**
+ * Framing for gzip objects assembled from {@link DeflateSegmentOutputStream} segments:
+ * {@code header + segment... + trailer} is one ordinary single-member gzip file.
+ */
+public final class GzipSegments {
+
+    // Same fixed header GZIPOutputStream writes: magic, CM=deflate, no flags, no mtime, OS=0
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+
+    // An empty fixed-Huffman block with BFINAL set; ends the deflate stream after the last segment
+    private static final byte[] FINAL_BLOCK = {0x03, 0x00};
+
+    private static final long CRC32_POLYNOMIAL = 0xedb88320L;
+
+    private GzipSegments() {}
+
+    public static byte[] header() {
+        return HEADER.clone();
+    }
+
+    public static int headerLength() {
+        return HEADER.length;
+    }
+
+    /**
+     * Final deflate block followed by the gzip trailer (CRC-32 and size mod 2^32, little-endian).
+     */
+    public static byte[] trailer(long crc32, long uncompressedSize) {
+        byte[] trailer = new byte[FINAL_BLOCK.length + 8];
+        System.arraycopy(FINAL_BLOCK, 0, trailer, 0, FINAL_BLOCK.length);
+        writeIntLE(trailer, FINAL_BLOCK.length, crc32);
+        writeIntLE(trailer, FINAL_BLOCK.length + 4, uncompressedSize);
+        return trailer;
+    }
+
+    public static int trailerLength() {
+        return FINAL_BLOCK.length + 8;
+    }
+
+    /**
+     * CRC-32 of the concatenation A+B given crc(A), crc(B) and the length of B. Port of zlib's
+     * {@code crc32_combine}, which lets segments be checksummed independently.
+     */
+    public static long combineCrc32(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+
+        // Operator for one zero bit in odd
+        odd[0] = CRC32_POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // two zero bits
+        gf2MatrixSquare(odd, even); // four zero bits
+
+        // Apply len2 zeros to crc1 (the first square puts the operator for one zero byte in even)
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return (crc1 ^ crc2) & 0xffffffffL;
+    }
+
+    private static long gf2MatrixTimes(long[] mat, long vec) {
+        long sum = 0;
+        int i = 0;
+        while (vec != 0) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+            vec >>>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
+    private static void writeIntLE(byte[] target, int offset, long value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+        target[offset + 2] = (byte) (value >>> 16);
+        target[offset + 3] = (byte) (value >>> 24);
+    }
+}
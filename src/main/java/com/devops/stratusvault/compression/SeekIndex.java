@@ -0,0 +1,78 @@
+package com.devops.stratusvault.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Maps fixed-size blocks of uncompressed data to the compressed offsets where a raw inflater can
+ * start reading them. Produced by {@link SeekableGzipOutputStream} and stored with the document.
+ */
+public final class SeekIndex {
+
+    private final int blockSize;
+    private final long[] blockOffsets;
+
+    public SeekIndex(int blockSize, long[] blockOffsets) {
+        if (blockSize <= 0 || blockOffsets.length == 0) {
+            throw new IllegalArgumentException("Seek index needs a positive block size and at least one block");
+        }
+        this.blockSize = blockSize;
+        this.blockOffsets = blockOffsets;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Block containing the given uncompressed position.
+     */
+    public int blockOf(long position) {
+        long block = position / blockSize;
+        if (block >= blockOffsets.length) {
+            throw new IllegalArgumentException("Position " + position + " is past the indexed data");
+        }
+        return (int) block;
+    }
+
+    /**
+     * Uncompressed position of the first byte in the given block.
+     */
+    public long blockStart(int block) {
+        return (long) block * blockSize;
+    }
+
+    /**
+     * Compressed offset where the given block's raw deflate data begins.
+     */
+    public long compressedOffset(int block) {
+        return blockOffsets[block];
+    }
+
+    /**
+     * Compressed offset just past the given block: the start of the next block, or the end of the
+     * object for the last one.
+     */
+    public long compressedEnd(int block, long compressedSize) {
+        return (block + 1 < blockOffsets.length) ? blockOffsets[block + 1] : compressedSize;
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES * blockOffsets.length);
+        buffer.putInt(blockSize);
+        buffer.putInt(blockOffsets.length);
+        for (long offset : blockOffsets) {
+            buffer.putLong(offset);
+        }
+        return buffer.array();
+    }
+
+    public static SeekIndex decode(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        int blockSize = buffer.getInt();
+        long[] offsets = new long[buffer.getInt()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.getLong();
+        }
+        return new SeekIndex(blockSize, offsets);
+    }
+}
@@ -0,0 +1,88 @@
+package com.devops.stratusvault.compression;
+
+import com.google.common.io.CountingOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP output that can later be read starting from the middle.
+ * <p>
+ * Every {@code blockSize} uncompressed bytes the deflater is full-flushed: pending output is
+ * byte-aligned and the dictionary is reset, so a raw inflater can start at that compressed offset
+ * without any of the data before it. The offsets are collected into a {@link SeekIndex}. The result
+ * is still a single ordinary gzip member that any client can decode front to back.
+ */
+public class SeekableGzipOutputStream extends GZIPOutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final int blockSize;
+    private long[] blockOffsets = new long[16];
+    private int blockCount;
+    private int bytesInBlock;
+
+    public SeekableGzipOutputStream(OutputStream out, int bufferSize, int blockSize) throws IOException {
+        this(out, bufferSize, blockSize, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public SeekableGzipOutputStream(OutputStream out, int bufferSize, int blockSize, int level) throws IOException {
+        super(new CountingOutputStream(out), bufferSize);
+        // No input has been deflated yet, so the new level applies to the whole stream
+        def.setLevel(level);
+        this.blockSize = blockSize;
+        // Block 0 starts right after the gzip header written by the superclass constructor
+        addBlockOffset(getCompressedSize());
+    }
+
+    @Override
+    public synchronized void write(byte[] buf, int off, int len) throws IOException {
+        while (len > 0) {
+            int chunk = Math.min(len, blockSize - bytesInBlock);
+            super.write(buf, off, chunk);
+            off += chunk;
+            len -= chunk;
+            bytesInBlock += chunk;
+            if (bytesInBlock == blockSize) {
+                fullFlush();
+                addBlockOffset(getCompressedSize());
+                bytesInBlock = 0;
+            }
+        }
+    }
+
+    /**
+     * Number of compressed bytes written to the underlying stream so far. After {@link #finish()}
+     * this is the size of the complete gzip object.
+     */
+    public long getCompressedSize() {
+        return ((CountingOutputStream) out).getCount();
+    }
+
+    /**
+     * Index of block start offsets. Only meaningful once {@link #finish()} has been called.
+     */
+    public SeekIndex getSeekIndex() {
+        return new SeekIndex(blockSize, Arrays.copyOf(blockOffsets, blockCount));
+    }
+
+    private void fullFlush() throws IOException {
+        int len;
+        while ((len = def.deflate(buf, 0, buf.length, Deflater.FULL_FLUSH)) > 0) {
+            out.write(buf, 0, len);
+            if (len < buf.length) {
+                break;
+            }
+        }
+    }
+
+    private void addBlockOffset(long offset) {
+        if (blockCount == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+        }
+        blockOffsets[blockCount++] = offset;
+    }
+}
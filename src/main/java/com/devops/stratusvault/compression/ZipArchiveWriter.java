@@ -0,0 +1,354 @@
+package com.devops.stratusvault.compression;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a ZIP archive front to back onto a stream that cannot seek, such as an HTTP response.
+ * <p>
+ * Every entry is DEFLATE followed by a data descriptor (general purpose bit 3), so the CRC and the
+ * compressed size only have to be known once the entry's bytes are out. That is what lets
+ * {@link #putGzip} copy a gzip object's deflate stream in unchanged: it drops the gzip header,
+ * copies the compressed bytes, and takes the CRC-32 from the gzip trailer. Anything else goes
+ * through {@link #putContent}, which deflates while computing the CRC.
+ * <p>
+ * Entries of 4 GiB or more, offsets past 4 GiB and more than 65535 entries get ZIP64 records. Only
+ * the central directory is kept in memory.
+ */
+public class ZipArchiveWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    // Bit 3: sizes and CRC follow the data; bit 11: names are UTF-8
+    private static final int FLAGS = 0x0808;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final long MAX_32 = 0xffffffffL;
+    private static final int MAX_16 = 0xffff;
+    // Decided up front from the uncompressed size. java.util.zip readers pick the descriptor width
+    // from the actual sizes rather than the local extra field, so the two must agree: 4 GiB it is.
+    private static final long ZIP64_ENTRY_THRESHOLD = MAX_32;
+
+    private static final int GZIP_HEADER_LENGTH = 10;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CountingOutputStream out;
+    private final List<CentralEntry> entries = new ArrayList<>();
+    private boolean finished;
+
+    private record CentralEntry(byte[] name, int dosTime, int dosDate, long crc, long compressedSize,
+                                long uncompressedSize, long localHeaderOffset, boolean zip64) {}
+
+    public ZipArchiveWriter(OutputStream out) {
+        this.out = new CountingOutputStream(out);
+    }
+
+    /**
+     * Adds an entry whose content is the given gzip stream, reusing its deflate data as the entry's
+     * compressed bytes. {@code uncompressedSize} must be the exact decompressed length; it is
+     * checked against the size in the gzip trailer.
+     */
+    public void putGzip(String name, LocalDateTime modified, InputStream gzip, long uncompressedSize) throws IOException {
+        skipGzipHeader(gzip);
+        boolean zip64 = uncompressedSize >= ZIP64_ENTRY_THRESHOLD;
+        long headerOffset = writeLocalHeader(name, modified, zip64);
+        long dataStart = out.getCount();
+
+        // Everything but the trailer is the deflate stream; hold the last 8 bytes back until EOF
+        byte[] buffer = new byte[BUFFER_SIZE + GZIP_TRAILER_LENGTH];
+        int held = 0;
+        int read;
+        while ((read = gzip.read(buffer, held, buffer.length - held)) != -1) {
+            held += read;
+            if (held > GZIP_TRAILER_LENGTH) {
+                int emit = held - GZIP_TRAILER_LENGTH;
+                out.write(buffer, 0, emit);
+                System.arraycopy(buffer, emit, buffer, 0, GZIP_TRAILER_LENGTH);
+                held = GZIP_TRAILER_LENGTH;
+            }
+        }
+        if (held < GZIP_TRAILER_LENGTH) {
+            throw new ZipException("Truncated gzip stream for " + name);
+        }
+        ByteBuffer trailer = ByteBuffer.wrap(buffer, 0, GZIP_TRAILER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        long crc = Integer.toUnsignedLong(trailer.getInt());
+        long sizeMod32 = Integer.toUnsignedLong(trailer.getInt());
+        if (sizeMod32 != (uncompressedSize & MAX_32)) {
+            throw new ZipException("gzip trailer size does not match the expected size for " + name);
+        }
+        finishEntry(name, modified, headerOffset, dataStart, crc, uncompressedSize, zip64);
+    }
+
+    /**
+     * Adds an entry by deflating {@code content} at the given {@link Deflater} level.
+     * {@code sizeHint} is the expected uncompressed length, used only to decide on ZIP64.
+     */
+    public void putContent(String name, LocalDateTime modified, InputStream content, long sizeHint, int level) throws IOException {
+        boolean zip64 = sizeHint >= ZIP64_ENTRY_THRESHOLD;
+        long headerOffset = writeLocalHeader(name, modified, zip64);
+        long dataStart = out.getCount();
+
+        CRC32 crc = new CRC32();
+        long uncompressedSize = 0;
+        Deflater deflater = new Deflater(level, true);
+        try {
+            DeflaterOutputStream deflating = new DeflaterOutputStream(nonClosing(out), deflater, BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                deflating.write(buffer, 0, read);
+                uncompressedSize += read;
+            }
+            deflating.finish();
+        } finally {
+            deflater.end();
+        }
+        finishEntry(name, modified, headerOffset, dataStart, crc.getValue(), uncompressedSize, zip64);
+    }
+
+    /**
+     * Writes the central directory. The underlying stream is left open.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long directoryOffset = out.getCount();
+        for (CentralEntry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long directorySize = out.getCount() - directoryOffset;
+
+        boolean zip64 = entries.size() >= MAX_16 || directoryOffset >= MAX_32 || directorySize >= MAX_32;
+        if (zip64) {
+            long zip64EndOffset = out.getCount();
+            ByteBuffer end64 = header(56);
+            end64.putInt(ZIP64_END_SIGNATURE);
+            end64.putLong(44);                      // size of the rest of this record
+            end64.putShort((short) VERSION_ZIP64);  // made by
+            end64.putShort((short) VERSION_ZIP64);  // needed to extract
+            end64.putInt(0).putInt(0);              // this disk, directory disk
+            end64.putLong(entries.size()).putLong(entries.size());
+            end64.putLong(directorySize).putLong(directoryOffset);
+            write(end64);
+
+            ByteBuffer locator = header(20);
+            locator.putInt(ZIP64_LOCATOR_SIGNATURE).putInt(0).putLong(zip64EndOffset).putInt(1);
+            write(locator);
+        }
+
+        ByteBuffer end = header(22);
+        end.putInt(END_SIGNATURE);
+        end.putShort((short) 0).putShort((short) 0);
+        end.putShort((short) Math.min(entries.size(), MAX_16));
+        end.putShort((short) Math.min(entries.size(), MAX_16));
+        end.putInt((int) Math.min(directorySize, MAX_32));
+        end.putInt((int) Math.min(directoryOffset, MAX_32));
+        end.putShort((short) 0);                    // comment length
+        write(end);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private long writeLocalHeader(String name, LocalDateTime modified, boolean zip64) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Archive already finished");
+        }
+        long offset = out.getCount();
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int extraLength = zip64 ? 20 : 0;
+        ByteBuffer header = header(30 + nameBytes.length + extraLength);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+        header.putShort((short) FLAGS);
+        header.putShort((short) METHOD_DEFLATED);
+        header.putShort((short) dosTime(modified));
+        header.putShort((short) dosDate(modified));
+        // CRC and sizes are in the data descriptor; ZIP64 marks the sizes as living in the extra field
+        header.putInt(0);
+        header.putInt(zip64 ? (int) MAX_32 : 0);
+        header.putInt(zip64 ? (int) MAX_32 : 0);
+        header.putShort((short) nameBytes.length);
+        header.putShort((short) extraLength);
+        header.put(nameBytes);
+        if (zip64) {
+            header.putShort((short) ZIP64_EXTRA_ID).putShort((short) 16).putLong(0).putLong(0);
+        }
+        write(header);
+        return offset;
+    }
+
+    private void finishEntry(String name, LocalDateTime modified, long headerOffset, long dataStart,
+                             long crc, long uncompressedSize, boolean zip64) throws IOException {
+        long compressedSize = out.getCount() - dataStart;
+        if (!zip64 && (compressedSize >= MAX_32 || uncompressedSize >= MAX_32)) {
+            throw new ZipException("Entry " + name + " exceeds 4 GiB without ZIP64");
+        }
+        ByteBuffer descriptor = header(zip64 ? 24 : 16);
+        descriptor.putInt(DATA_DESCRIPTOR_SIGNATURE);
+        descriptor.putInt((int) crc);
+        if (zip64) {
+            descriptor.putLong(compressedSize).putLong(uncompressedSize);
+        } else {
+            descriptor.putInt((int) compressedSize).putInt((int) uncompressedSize);
+        }
+        write(descriptor);
+        entries.add(new CentralEntry(name.getBytes(StandardCharsets.UTF_8), dosTime(modified), dosDate(modified),
+                crc, compressedSize, uncompressedSize, headerOffset, zip64));
+    }
+
+    private void writeCentralHeader(CentralEntry entry) throws IOException {
+        boolean sizes64 = entry.zip64();
+        boolean offset64 = entry.localHeaderOffset() >= MAX_32;
+        int extraLength = (sizes64 || offset64) ? 4 + (sizes64 ? 16 : 0) + (offset64 ? 8 : 0) : 0;
+        boolean needs64 = extraLength > 0;
+
+        ByteBuffer header = header(46 + entry.name().length + extraLength);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_ZIP64);
+        header.putShort((short) (needs64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+        header.putShort((short) FLAGS);
+        header.putShort((short) METHOD_DEFLATED);
+        header.putShort((short) entry.dosTime());
+        header.putShort((short) entry.dosDate());
+        header.putInt((int) entry.crc());
+        header.putInt(sizes64 ? (int) MAX_32 : (int) entry.compressedSize());
+        header.putInt(sizes64 ? (int) MAX_32 : (int) entry.uncompressedSize());
+        header.putShort((short) entry.name().length);
+        header.putShort((short) extraLength);
+        header.putShort((short) 0);                 // comment length
+        header.putShort((short) 0);                 // disk number start
+        header.putShort((short) 0);                 // internal attributes
+        header.putInt(0);                           // external attributes
+        header.putInt(offset64 ? (int) MAX_32 : (int) entry.localHeaderOffset());
+        header.put(entry.name());
+        if (needs64) {
+            // Only the fields that overflowed, in the order the spec lists them
+            header.putShort((short) ZIP64_EXTRA_ID).putShort((short) (extraLength - 4));
+            if (sizes64) {
+                header.putLong(entry.uncompressedSize()).putLong(entry.compressedSize());
+            }
+            if (offset64) {
+                header.putLong(entry.localHeaderOffset());
+            }
+        }
+        write(header);
+    }
+
+    /**
+     * Consumes the gzip member header, including any optional fields, leaving the stream at the
+     * first byte of deflate data.
+     */
+    private static void skipGzipHeader(InputStream gzip) throws IOException {
+        byte[] header = new byte[GZIP_HEADER_LENGTH];
+        ByteStreams.readFully(gzip, header);
+        if ((header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b || header[2] != 8) {
+            throw new ZipException("Not a gzip stream");
+        }
+        int flags = header[3] & 0xff;
+        if ((flags & FEXTRA) != 0) {
+            int extraLength = readByte(gzip) | (readByte(gzip) << 8);
+            ByteStreams.skipFully(gzip, extraLength);
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated(gzip);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated(gzip);
+        }
+        if ((flags & FHCRC) != 0) {
+            ByteStreams.skipFully(gzip, 2);
+        }
+    }
+
+    private static void skipZeroTerminated(InputStream in) throws IOException {
+        while (readByte(in) != 0) {
+            // skip
+        }
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new ZipException("Truncated gzip header");
+        }
+        return b;
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        if (time == null || time.getYear() < 1980) {
+            return 0;
+        }
+        return (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private static int dosDate(LocalDateTime time) {
+        if (time == null || time.getYear() < 1980) {
+            return (1 << 5) | 1;                    // 1980-01-01
+        }
+        int year = Math.min(time.getYear(), 2107);
+        return ((year - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+    }
+
+    private static ByteBuffer header(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+                // The archive owns the stream
+            }
+        };
+    }
+}
@@ -6,13 +6,16 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import jakarta.annotation.PostConstruct;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+// The loadtest profile runs offline with a stub TokenVerifier instead of the Admin SDK
 @Configuration
+@Profile("!loadtest")
 public class FirebaseConfig {
 
 //    // Injects the path to the service account key from application.properties
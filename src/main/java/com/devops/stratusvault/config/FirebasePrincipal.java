@@ -0,0 +1,31 @@
+package com.devops.stratusvault.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * The authenticated caller, taken from the verified ID token by {@link FirebaseTokenFilter}.
+ * Carrying the email here means controllers never have to ask Firebase for the user record.
+ */
+public record FirebasePrincipal(String uid, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return uid;
+    }
+
+    /**
+     * The principal of the current request.
+     *
+     * @throws IllegalStateException if the request was not authenticated by the token filter
+     */
+    public static FirebasePrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof FirebasePrincipal principal)) {
+            throw new IllegalStateException("Request is not authenticated with a Firebase ID token");
+        }
+        return principal;
+    }
+}
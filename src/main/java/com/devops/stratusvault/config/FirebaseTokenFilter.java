@@ -1,7 +1,7 @@
 package com.devops.stratusvault.config;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,13 +12,34 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This filter intercepts every request, checks for a Firebase ID token in the
  * Authorization header, and if valid, sets the user's authentication context.
+ * Verified tokens are cached (see {@link VerifiedTokenCache}) so only the first
+ * request with a given token pays for signature verification. The time spent
+ * verifying is recorded as {@code stratusvault.auth.token.verify}.
  */
 public class FirebaseTokenFilter extends OncePerRequestFilter {
 
+    private final VerifiedTokenCache tokenCache;
+    private final Timer validTokens;
+    private final Timer invalidTokens;
+
+    public FirebaseTokenFilter(VerifiedTokenCache tokenCache, MeterRegistry meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.validTokens = verifyTimer(meterRegistry, "valid");
+        this.invalidTokens = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("stratusvault.auth.token.verify")
+                .description("Time to verify a bearer token, including token cache hits")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -34,18 +55,21 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
 
         String idToken = header.substring(7); // Remove "Bearer " prefix
 
+        long verifyStart = System.nanoTime();
         try {
-            // Use the Firebase Admin SDK to verify the token. This will throw an exception if invalid.
-            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
-            String uid = decodedToken.getUid();
+            // Verify the token (or reuse an earlier verification of it). This will throw an exception if invalid.
+            VerifiedToken verifiedToken = tokenCache.verify(idToken);
+            validTokens.record(System.nanoTime() - verifyStart, TimeUnit.NANOSECONDS);
 
             // If the token is valid, create an authentication object and set it in the Spring Security context.
             // This tells Spring that the user is authenticated.
+            FirebasePrincipal principal = new FirebasePrincipal(verifiedToken.uid(), verifiedToken.email());
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken
-                    (uid, null, new ArrayList<>());  // We use the UID as the principal
+                    (principal, null, new ArrayList<>());  // uid and email, straight from the token
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
         } catch (Exception e) {
+            invalidTokens.record(System.nanoTime() - verifyStart, TimeUnit.NANOSECONDS);
             // If the token is invalid, we clear the context and send an unauthorized error.
             SecurityContextHolder.clearContext();
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED,"Invalid Firebase Token");
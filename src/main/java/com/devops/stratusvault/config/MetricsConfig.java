@@ -0,0 +1,140 @@
+package com.devops.stratusvault.config;
+
+import com.devops.stratusvault.service.BlobDeletionService;
+import com.devops.stratusvault.service.BlobGarbageCollector;
+import com.devops.stratusvault.service.BlobReferenceReconciler;
+import com.devops.stratusvault.service.CachingBlobStore;
+import com.devops.stratusvault.service.ContentIndexer;
+import com.devops.stratusvault.service.DocumentAccessCache;
+import com.devops.stratusvault.service.DocumentService;
+import com.devops.stratusvault.service.DownloadCoalescer;
+import com.devops.stratusvault.service.StorageBulkhead;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters the caches, the bulkhead and the background workers already keep as
+ * Micrometer meters, read at scrape time. The request-path timers live next to the code they time
+ * ({@link FirebaseTokenFilter}, {@code DocumentMetrics}, {@code StorageMetrics}). Repository calls
+ * and the connection pool are timed by Spring Boot itself ({@code spring.data.repository.invocations},
+ * {@code hikaricp.*}); the one query path outside the repositories, the content postings batch
+ * insert, has its own {@code stratusvault.db.query} timer.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(VerifiedTokenCache verifiedTokenCache, DocumentAccessCache documentAccessCache,
+                                    DocumentService documentService) {
+        return registry -> {
+            bindCache(registry, "verified-tokens", verifiedTokenCache, VerifiedTokenCache::stats,
+                    VerifiedTokenCache::estimatedSize);
+            bindCache(registry, "document-access", documentAccessCache, DocumentAccessCache::stats,
+                    DocumentAccessCache::estimatedSize);
+            bindCache(registry, "document-downloads", documentAccessCache, DocumentAccessCache::downloadStats,
+                    DocumentAccessCache::downloadEstimatedSize);
+            bindCache(registry, "users", documentService, DocumentService::userCacheStats,
+                    DocumentService::userCacheSize);
+        };
+    }
+
+    @Bean
+    public MeterBinder blobCacheMetrics(ObjectProvider<CachingBlobStore> cachingBlobStore) {
+        return registry -> cachingBlobStore.ifAvailable(store -> {
+            counter(registry, "stratusvault.blob.cache.requests", store, s -> s.stats().hits(), "result", "hit");
+            counter(registry, "stratusvault.blob.cache.requests", store, s -> s.stats().misses(), "result", "miss");
+            counter(registry, "stratusvault.blob.cache.admissions", store, s -> s.stats().admitted(), "result", "admitted");
+            counter(registry, "stratusvault.blob.cache.admissions", store, s -> s.stats().rejected(), "result", "rejected");
+            counter(registry, "stratusvault.blob.cache.evictions", store, s -> s.stats().evictions());
+            Gauge.builder("stratusvault.blob.cache.size", store, s -> s.stats().cachedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder storageBulkheadMetrics(StorageBulkhead bulkhead) {
+        return registry -> {
+            for (StorageBulkhead.Kind kind : StorageBulkhead.Kind.values()) {
+                String tag = kind.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("stratusvault.storage.bulkhead.available", bulkhead, b -> b.available(kind))
+                        .description("Free storage call permits")
+                        .tag("kind", tag)
+                        .register(registry);
+                Gauge.builder("stratusvault.storage.bulkhead.waiting", bulkhead, b -> b.waiting(kind))
+                        .description("Callers queued for a storage call permit")
+                        .tag("kind", tag)
+                        .register(registry);
+            }
+            counter(registry, "stratusvault.storage.bulkhead.rejected", bulkhead, StorageBulkhead::rejected);
+        };
+    }
+
+    @Bean
+    public MeterBinder backgroundWorkMetrics(DownloadCoalescer downloadCoalescer, BlobGarbageCollector garbageCollector,
+                                             BlobDeletionService blobDeletionService,
+                                             BlobReferenceReconciler referenceReconciler, ContentIndexer contentIndexer) {
+        return registry -> {
+            counter(registry, "stratusvault.download.coalesced", downloadCoalescer, c -> c.stats().fetches(), "result", "fetched");
+            counter(registry, "stratusvault.download.coalesced", downloadCoalescer, c -> c.stats().joined(), "result", "joined");
+            counter(registry, "stratusvault.download.coalesced", downloadCoalescer, c -> c.stats().detached(), "result", "detached");
+            Gauge.builder("stratusvault.download.coalesced.buffered", downloadCoalescer, DownloadCoalescer::bufferedBytes)
+                    .description("Bytes held for readers sharing a storage read")
+                    .baseUnit("bytes")
+                    .register(registry);
+
+            counter(registry, "stratusvault.blob.gc.deletions", garbageCollector, g -> g.stats().deleted(), "result", "deleted");
+            counter(registry, "stratusvault.blob.gc.deletions", garbageCollector, g -> g.stats().missing(), "result", "missing");
+            counter(registry, "stratusvault.blob.gc.deletions", garbageCollector, g -> g.stats().skippedReferenced(), "result", "referenced");
+            counter(registry, "stratusvault.blob.gc.deletions", garbageCollector, g -> g.stats().failed(), "result", "failed");
+            counter(registry, "stratusvault.blob.gc.runs", garbageCollector, g -> g.stats().runs());
+            // One count(*) on the outbox per scrape
+            Gauge.builder("stratusvault.blob.gc.pending", blobDeletionService, BlobDeletionService::pendingCount)
+                    .description("Blob deletions waiting in the outbox")
+                    .register(registry);
+            counter(registry, "stratusvault.blob.reconcile.blobs", referenceReconciler, r -> r.stats().corrected(), "result", "corrected");
+            counter(registry, "stratusvault.blob.reconcile.blobs", referenceReconciler, r -> r.stats().released(), "result", "released");
+
+            counter(registry, "stratusvault.content.index.documents", contentIndexer, i -> i.stats().indexed(), "result", "indexed");
+            counter(registry, "stratusvault.content.index.documents", contentIndexer, i -> i.stats().skipped(), "result", "skipped");
+            counter(registry, "stratusvault.content.index.documents", contentIndexer, i -> i.stats().failed(), "result", "failed");
+            counter(registry, "stratusvault.content.index.documents", contentIndexer, i -> i.stats().dropped(), "result", "dropped");
+            Gauge.builder("stratusvault.content.index.queued", contentIndexer, i -> i.stats().queued())
+                    .register(registry);
+            Gauge.builder("stratusvault.content.index.active", contentIndexer, i -> i.stats().active())
+                    .register(registry);
+        };
+    }
+
+    /**
+     * The meters Micrometer's own Caffeine binder would register, fed from the owner's stats
+     * snapshot since the caches are not exposed directly. Function meters hold their source weakly,
+     * so the source must be the (singleton) owner, not a lambda.
+     */
+    private static <T> void bindCache(MeterRegistry registry, String name, T owner, Function<T, CacheStats> stats,
+                                      ToDoubleFunction<T> size) {
+        counter(registry, "cache.gets", owner, o -> stats.apply(o).hitCount(), "cache", name, "result", "hit");
+        counter(registry, "cache.gets", owner, o -> stats.apply(o).missCount(), "cache", name, "result", "miss");
+        counter(registry, "cache.evictions", owner, o -> stats.apply(o).evictionCount(), "cache", name);
+        Gauge.builder("cache.size", owner, size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> count,
+                                    String... tags) {
+        FunctionCounter.builder(name, source, count)
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -1,7 +1,10 @@
 package com.devops.stratusvault.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -19,13 +22,26 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // The loadtest profile supplies its own stub; with no verifier at all the app refuses to start
     @Bean
-    public FirebaseTokenFilter firebaseTokenFilter(){
-        return new FirebaseTokenFilter();
+    @Profile("!loadtest")
+    public TokenVerifier tokenVerifier() {
+        return TokenVerifier.firebase();
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public VerifiedTokenCache verifiedTokenCache(TokenVerifier tokenVerifier,
+                                                 @Value("${app.auth.token-cache.maximum-size:10000}") long maximumSize) {
+        return new VerifiedTokenCache(tokenVerifier, maximumSize);
+    }
+
+    @Bean
+    public FirebaseTokenFilter firebaseTokenFilter(VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry){
+        return new FirebaseTokenFilter(verifiedTokenCache, meterRegistry);
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, FirebaseTokenFilter firebaseTokenFilter) throws Exception {
         http
                 // Enable CORS (Cross-Origin Resource Sharing)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -39,6 +55,8 @@ public class SecurityConfig {
                         // Allow anyone to access the root URL (to load our login page)
                         .requestMatchers("/", "/index.html", "/favicon.ico",
                                 "/css/**", "/js/**", "/images/**", "/static/**", "/api/**").permitAll()
+                        // Scrape and probe endpoints; served on the separate management port
+                        .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/prometheus").permitAll()
                         // Any request to an endpoint starting with /api/ must be authenticated
 //                        .requestMatchers("/api/**").authenticated()
 
@@ -46,7 +64,7 @@ public class SecurityConfig {
                         .anyRequest().denyAll()
                 )
         // Tell Spring Security to add our custom filter into the process
-        .addFilterBefore(firebaseTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(firebaseTokenFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -59,7 +77,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Range", "If-Range"));
+        configuration.setExposedHeaders(Arrays.asList("Accept-Ranges", "Content-Range", "Content-Disposition", "ETag", "X-Next-Cursor"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
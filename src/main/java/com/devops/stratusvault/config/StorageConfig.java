@@ -0,0 +1,46 @@
+package com.devops.stratusvault.config;
+
+import com.devops.stratusvault.service.BlobStore;
+import com.devops.stratusvault.service.CachingBlobStore;
+import com.devops.stratusvault.service.GcsService;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * GCS client for the {@code gcs} storage backend. Not created at all with
+ * {@code app.storage.backend=local}, so local nodes never need Google credentials for storage.
+ * With {@code app.storage.cache.enabled=true} the GCS store is fronted by a local disk cache,
+ * which then becomes the {@link BlobStore} everything else uses.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "gcs", matchIfMissing = true)
+public class StorageConfig {
+
+    @Bean
+    public Storage storage() {
+        return StorageOptions.getDefaultInstance().getService();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "app.storage.cache.enabled", havingValue = "true")
+    public CachingBlobStore cachingBlobStore(GcsService gcsService,
+                                             @Value("${app.storage.cache.directory}") String directory,
+                                             @Value("${app.storage.cache.max-size:10GB}") DataSize maxSize,
+                                             @Value("${app.storage.cache.max-object-size:256MB}") DataSize maxObjectSize,
+                                             @Value("${app.storage.cache.min-accesses:2}") int minAccesses,
+                                             @Value("${app.storage.cache.frequency-window:1h}") Duration frequencyWindow) throws IOException {
+        return new CachingBlobStore(gcsService, Paths.get(directory), maxSize.toBytes(), maxObjectSize.toBytes(),
+                minAccesses, frequencyWindow);
+    }
+}
@@ -0,0 +1,18 @@
+package com.devops.stratusvault.config;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+
+/**
+ * Verifies a raw ID token. The default delegates to the Firebase Admin SDK; tests and
+ * benchmarks can supply a stub that skips the signature check.
+ */
+@FunctionalInterface
+public interface TokenVerifier {
+
+    VerifiedToken verify(String idToken) throws FirebaseAuthException;
+
+    static TokenVerifier firebase() {
+        return idToken -> VerifiedToken.from(FirebaseAuth.getInstance().verifyIdToken(idToken));
+    }
+}
@@ -0,0 +1,20 @@
+package com.devops.stratusvault.config;
+
+import com.google.firebase.auth.FirebaseToken;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The parts of a verified Firebase ID token the application needs after verification.
+ * Holding this instead of the raw token keeps cached entries small and free of credentials.
+ */
+public record VerifiedToken(String uid, String email, Map<String, Object> claims, Instant expiresAt) {
+
+    public static VerifiedToken from(FirebaseToken token) {
+        Map<String, Object> claims = token.getClaims();
+        // "exp" is seconds since the epoch; verifyIdToken has already rejected tokens without it
+        Instant expiresAt = Instant.ofEpochSecond(((Number) claims.get("exp")).longValue());
+        return new VerifiedToken(token.getUid(), token.getEmail(), Map.copyOf(claims), expiresAt);
+    }
+}
@@ -0,0 +1,96 @@
+package com.devops.stratusvault.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.firebase.auth.FirebaseAuthException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of verified ID tokens, so repeat requests from the same session cost a hash
+ * lookup instead of an RSA signature check.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token (the raw credential is never retained) and live
+ * until the token's own {@code exp}, so a cached token is accepted exactly as long as
+ * {@code verifyIdToken} would accept it. Beyond that, entries are evicted by size.
+ */
+public class VerifiedTokenCache {
+
+    private final TokenVerifier verifier;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(TokenVerifier verifier, long maximumSize) {
+        this(verifier, maximumSize, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(TokenVerifier verifier, long maximumSize, Clock clock) {
+        this.verifier = verifier;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the verified token, verifying and caching it on a miss.
+     *
+     * @throws FirebaseAuthException if the token is invalid or expired
+     */
+    public VerifiedToken verify(String idToken) throws FirebaseAuthException {
+        String key = keyOf(idToken);
+        VerifiedToken cached = cache.getIfPresent(key);
+        // Expiry is also enforced here: eviction of expired entries is lazy
+        if (cached != null && cached.expiresAt().isAfter(clock.instant())) {
+            return cached;
+        }
+        VerifiedToken verified = verifier.verify(idToken);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private static String keyOf(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(idToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            Duration remaining = Duration.between(clock.instant(), token.expiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
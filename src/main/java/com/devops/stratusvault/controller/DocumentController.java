@@ -1,18 +1,36 @@
 package com.devops.stratusvault.controller;
 
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.config.FirebasePrincipal;
+import com.devops.stratusvault.dto.ArchiveRequestDTO;
+import com.devops.stratusvault.dto.BatchShareRequestDTO;
+import com.devops.stratusvault.dto.BatchShareResponseDTO;
 import com.devops.stratusvault.dto.DocumentMapper;
 import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.dto.DocumentScope;
 import com.devops.stratusvault.dto.ShareRequestDTO;
+import com.devops.stratusvault.dto.UploadResultDTO;
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
 import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.service.DocumentSearchService;
+import com.devops.stratusvault.service.DocumentMetrics;
 import com.devops.stratusvault.service.DocumentService;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.UserRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,40 +38,128 @@ import java.util.Optional;
 @RequestMapping("/api/documents")
 public class DocumentController {
 
+    private static final Logger log = LoggerFactory.getLogger(DocumentController.class);
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+    private static final String ARCHIVE_FILE_NAME = "documents.zip";
+
     private final DocumentService documentService;
+    private final DocumentSearchService documentSearchService;
+    private final DocumentMetrics documentMetrics;
+    private final int uploadParallelism;
+    private final int maxBatchUploadFiles;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, DocumentSearchService documentSearchService,
+                              DocumentMetrics documentMetrics,
+                              @Value("${app.upload.parallelism:8}") int uploadParallelism,
+                              @Value("${app.upload.batch.max-files:50}") int maxBatchUploadFiles) {
         this.documentService = documentService;
+        this.documentSearchService = documentSearchService;
+        this.documentMetrics = documentMetrics;
+        this.uploadParallelism = uploadParallelism;
+        this.maxBatchUploadFiles = maxBatchUploadFiles;
     }
 
     @PostMapping("/upload")
     public ResponseEntity<?> fileUpload(@RequestParam("file") MultipartFile file) {
+        FirebasePrincipal principal;
+        try {
+            principal = FirebasePrincipal.current();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error authenticating user: " + e.getMessage());
+        }
+        // Runtime failures, such as a full storage bulkhead (503), are left to ApiExceptionHandler
         try {
-            String uid = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            UserRecord decodedToken = FirebaseAuth.getInstance().getUser(uid);
-            Document saved = documentService.uploadDocument(file, uid, decodedToken.getEmail());
+            Document saved = documentService.uploadDocument(file, principal.uid(), principal.email());
             return ResponseEntity.status(HttpStatus.CREATED).body(DocumentMapper.toResponse(saved));
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error processing file: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error authenticating user: " + e.getMessage());
         }
     }
 
+    /**
+     * Uploads several files in one request; each file gets its own result. Responds 201 when every
+     * file was stored and 207 when some failed.
+     */
+    @PostMapping("/upload:batch")
+    public ResponseEntity<List<UploadResultDTO>> fileUploads(@RequestParam("files") List<MultipartFile> files) {
+        // The total size is bounded by spring.servlet.multipart.max-request-size before we get here
+        if (files.isEmpty() || files.size() > maxBatchUploadFiles) {
+            throw new BadRequestException("Between 1 and %d files per request".formatted(maxBatchUploadFiles));
+        }
+        FirebasePrincipal principal = FirebasePrincipal.current();
+        List<UploadResultDTO> results = documentService
+                .uploadDocuments(files, principal.uid(), principal.email(), uploadParallelism).stream()
+                .map(outcome -> new UploadResultDTO(outcome.fileName(),
+                        DocumentMapper.toResponse(outcome.document()), outcome.error()))
+                .toList();
+        boolean allStored = results.stream().allMatch(result -> result.error() == null);
+        return ResponseEntity.status(allStored ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    /**
+     * Newest first, one page at a time. The body stays a plain array; when more documents follow,
+     * the X-Next-Cursor header carries the value to pass as {@code cursor} for the next page.
+     */
     @GetMapping
-    public List<DocumentResponseDTO> list() {
-        String uid = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<Document> docs = documentService.findForUser(uid);
-        return docs.stream().map(DocumentMapper::toResponse).toList();
+    public ResponseEntity<List<DocumentResponseDTO>> list(@RequestParam(defaultValue = "" + DocumentService.DEFAULT_PAGE_SIZE) int limit,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String contentType,
+                                                          @RequestParam(required = false) String scope) {
+        String uid = FirebasePrincipal.current().uid();
+        DocumentService.DocumentPage page = documentService.listForUser(uid, DocumentScope.parse(scope), contentType, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Prefix, substring and typo-tolerant search over file name, content type and owner email,
+     * best matches first. Paged like the listing, through the X-Next-Cursor header.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<DocumentResponseDTO>> search(@RequestParam String q,
+                                                            @RequestParam(defaultValue = "" + DocumentService.DEFAULT_PAGE_SIZE) int limit,
+                                                            @RequestParam(required = false) String cursor) {
+        String uid = FirebasePrincipal.current().uid();
+        DocumentService.DocumentPage page = documentSearchService.search(uid, q, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Text, CSV, JSON and Markdown documents containing every word of {@code q}. Documents become
+     * searchable shortly after upload, once background indexing has processed them.
+     */
+    @GetMapping("/search/content")
+    public ResponseEntity<List<DocumentResponseDTO>> searchContent(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "" + DocumentService.DEFAULT_PAGE_SIZE) int limit,
+                                                                   @RequestParam(required = false) String cursor) {
+        String uid = FirebasePrincipal.current().uid();
+        DocumentService.DocumentPage page = documentSearchService.searchContent(uid, q, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable long id) {
+    public ResponseEntity<StreamingResponseBody> downloadDocument(@PathVariable long id,
+                                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                  @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                                  @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
         try {
-            String firebaseUid = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            String firebaseUid = FirebasePrincipal.current().uid();
 
-            // The service now handles the security check and decompression
+            // The service handles the security check; streams are opened below once we know what to send
             Optional<DocumentService.DownloadableFile> downloadableFileOptional = documentService.downloadDocument(id, firebaseUid);
 
             if (downloadableFileOptional.isEmpty()) {
@@ -68,38 +174,224 @@ public class DocumentController {
             // This header tells the browser to prompt a download with the original filename
             headers.setContentDisposition(ContentDisposition.attachment().filename(file.fileName()).build());
             // Handle cases where contentType might be null
-            if (file.contentType() != null && !file.contentType().isBlank()) {
-                headers.setContentType(MediaType.parseMediaType(file.contentType()));
-            } else {
-                headers.setContentType(MediaType.APPLICATION_OCTET_STREAM); // A generic default
+            MediaType contentType = (file.contentType() != null && !file.contentType().isBlank())
+                    ? MediaType.parseMediaType(file.contentType())
+                    : MediaType.APPLICATION_OCTET_STREAM; // A generic default
+            // The body depends on Accept-Encoding, so caches must key on it
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (file.lastModified() != null) {
+                headers.setLastModified(file.lastModified());
+            }
+
+            // Ranges address the decompressed bytes; a stale If-Range means "send the whole thing"
+            if (range != null && ifRangeMatches(ifRange, file)) {
+                return partialContent(file, range, contentType, headers);
             }
 
-            return new ResponseEntity<>(file.data(), headers, HttpStatus.OK);
+            headers.setContentType(contentType);
+            InputStream content;
+            String encoding = "identity";
+            if (file.codec() == Codec.GZIP && acceptsGzip(acceptEncoding)) {
+                // Stored bytes go out unchanged; the client inflates
+                content = documentService.openStoredContent(file);
+                headers.set(HttpHeaders.CONTENT_ENCODING, DocumentService.GZIP_ENCODING);
+                encoding = DocumentService.GZIP_ENCODING;
+                headers.setContentLength(file.compressedSize());
+                headers.setETag(file.entityTag(DocumentService.GZIP_ENCODING));
+            } else {
+                content = documentService.openContent(file);
+                headers.setContentLength(file.originalSize());
+                headers.setETag(file.entityTag(null));
+            }
+            return new ResponseEntity<>(streamOf(content, file.contentType(), encoding), headers, HttpStatus.OK);
 
         } catch (IOException e) {
-            e.printStackTrace(); // Good for server-side logging
+            log.error("Failed to download document {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @PostMapping(path = "/{id}/share")
     public ResponseEntity<?> shareDocument(@PathVariable long id, @RequestBody ShareRequestDTO shareRequestDTO) {
-        try{
-            System.out.println("Share Yeyyy ::::::: " + shareRequestDTO);
-            String firebaseUid = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-            documentService.shareDocument(id, firebaseUid, shareRequestDTO.getEmail());
-            return ResponseEntity.ok().body(java.util.Map.of("message", "Document shared successfully"));
-        } catch (Exception e) {
-            System.out.println("Error over here!!");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        String firebaseUid = FirebasePrincipal.current().uid();
+
+        // The service's 404/403/400 responses and a busy storage 503 reach the client as thrown
+        documentService.shareDocument(id, firebaseUid, shareRequestDTO.getEmail());
+        return ResponseEntity.ok().body(java.util.Map.of("message", "Document shared successfully"));
+    }
+
+    @PostMapping("/share:batch")
+    public BatchShareResponseDTO shareDocuments(@RequestBody BatchShareRequestDTO request) {
+        String firebaseUid = FirebasePrincipal.current().uid();
+        return documentService.shareDocuments(request.getDocumentIds(), firebaseUid, request.getEmails());
+    }
+
+    /**
+     * Downloads several documents as one ZIP. Every id is authorized up front; the archive is then
+     * written straight to the response while the blobs are read, so nothing is buffered or spooled.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> archive(@RequestBody ArchiveRequestDTO request) {
+        String firebaseUid = FirebasePrincipal.current().uid();
+        List<DocumentService.DownloadableFile> files = documentService.prepareArchive(request.getDocumentIds(), firebaseUid);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_ZIP);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(ARCHIVE_FILE_NAME).build());
+        // The length is only known once the last entry is written, so the response is chunked
+        return new ResponseEntity<>(out -> documentService.writeArchive(files, out), headers, HttpStatus.OK);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable Long id) {
-        String uid = (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String uid = FirebasePrincipal.current().uid();
         documentService.deleteOwnedDocument(id, uid);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * True if the Accept-Encoding header allows gzip with a non-zero quality value. An explicit
+     * "gzip" entry takes precedence over the "*" wildcard.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(DocumentService.GZIP_ENCODING)) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double effective = (gzipQuality != null) ? gzipQuality : wildcardQuality;
+        return effective != null && effective > 0;
+    }
+
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> partialContent(DocumentService.DownloadableFile file, String rangeHeader,
+                                                                 MediaType contentType, HttpHeaders headers) throws IOException {
+        long totalLength = file.originalSize();
+        headers.setETag(file.entityTag(null));
+
+        List<ByteRange> ranges;
+        try {
+            ranges = resolveRanges(HttpRange.parseRanges(rangeHeader), totalLength);
+        } catch (IllegalArgumentException e) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + totalLength);
+            return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+
+        if (ranges.size() == 1) {
+            // Open eagerly so storage errors still turn into a proper status code
+            ByteRange r = ranges.get(0);
+            InputStream content = documentService.openContentRange(file, r.start(), r.length());
+            headers.setContentType(contentType);
+            headers.setContentLength(r.length());
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + r.start() + "-" + r.end() + "/" + totalLength);
+            return new ResponseEntity<>(streamOf(content, file.contentType(), "identity"), headers, HttpStatus.PARTIAL_CONTENT);
+        }
+
+        // Several ranges: multipart/byteranges, each part read from storage only when it is written
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        headers.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        StreamingResponseBody body = outputStream -> {
+            long sent = 0;
+            for (ByteRange r : ranges) {
+                String partHeader = "\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": bytes " + r.start() + "-" + r.end() + "/" + totalLength + "\r\n\r\n";
+                outputStream.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                try (InputStream content = documentService.openContentRange(file, r.start(), r.length())) {
+                    sent += content.transferTo(outputStream);
+                }
+            }
+            documentMetrics.recordDownload(file.contentType(), "identity", sent);
+            outputStream.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    /**
+     * Turns parsed ranges into absolute byte positions. Throws IllegalArgumentException when any
+     * range is unsatisfiable, or when several ranges together ask for at least the whole file
+     * (the same guard Spring applies to resource regions).
+     */
+    private static List<ByteRange> resolveRanges(List<HttpRange> httpRanges, long totalLength) {
+        if (httpRanges.isEmpty()) {
+            throw new IllegalArgumentException("No ranges requested");
+        }
+        List<ByteRange> ranges = new ArrayList<>(httpRanges.size());
+        long requested = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(totalLength);
+            long end = httpRange.getRangeEnd(totalLength);
+            if (end < start) {
+                throw new IllegalArgumentException("Empty range");
+            }
+            ByteRange range = new ByteRange(start, end);
+            requested += range.length();
+            ranges.add(range);
+        }
+        if (ranges.size() > 1 && requested >= totalLength) {
+            throw new IllegalArgumentException("Requested ranges cover the whole file");
+        }
+        return ranges;
+    }
+
+    /**
+     * If-Range holds either an entity tag or a date; the range is only honoured when it still
+     * identifies the decompressed representation that ranges are served from. The gzip tag names
+     * different bytes, and a date cannot tell the two encodings of a GZIP file apart, so both get
+     * the full response instead of a range that would be spliced onto compressed bytes.
+     */
+    static boolean ifRangeMatches(String ifRange, DocumentService.DownloadableFile file) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return value.equals(file.entityTag(null));
+        }
+        if (value.startsWith("W/") || file.lastModified() == null || file.codec() == Codec.GZIP) {
+            // Weak tags never match If-Range
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return since == file.lastModified().toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private StreamingResponseBody streamOf(InputStream content, String contentType, String encoding) {
+        // Stream straight from storage to the client; only a small copy buffer is held per download
+        return outputStream -> {
+            try (InputStream in = content) {
+                documentMetrics.recordDownload(contentType, encoding, in.transferTo(outputStream));
+            }
+        };
+    }
 }
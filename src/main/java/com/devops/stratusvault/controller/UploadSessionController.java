@@ -0,0 +1,65 @@
+package com.devops.stratusvault.controller;
+
+import com.devops.stratusvault.config.FirebasePrincipal;
+import com.devops.stratusvault.dto.DocumentMapper;
+import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.dto.UploadSessionRequestDTO;
+import com.devops.stratusvault.dto.UploadSessionResponseDTO;
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.service.UploadSessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Resumable chunked uploads for files above the multipart limit:
+ * start a session, PUT numbered chunks in order (raw request body), then complete it.
+ * GET on the session tells a client which chunk to resume from.
+ */
+@RestController
+@RequestMapping("/api/documents/uploads")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadSessionController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponseDTO> start(@RequestBody UploadSessionRequestDTO request) {
+        FirebasePrincipal principal = FirebasePrincipal.current();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(uploadSessionService.startSession(request, principal.uid(), principal.email()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadSessionResponseDTO status(@PathVariable String uploadId) {
+        String uid = FirebasePrincipal.current().uid();
+        return uploadSessionService.getSession(uploadId, uid);
+    }
+
+    @PutMapping("/{uploadId}/chunks/{chunkIndex}")
+    public UploadSessionResponseDTO putChunk(@PathVariable String uploadId, @PathVariable int chunkIndex,
+                                             InputStream body) throws IOException {
+        String uid = FirebasePrincipal.current().uid();
+        return uploadSessionService.appendChunk(uploadId, chunkIndex, body, uid);
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<DocumentResponseDTO> complete(@PathVariable String uploadId) throws IOException {
+        String uid = FirebasePrincipal.current().uid();
+        Document saved = uploadSessionService.completeSession(uploadId, uid);
+        return ResponseEntity.status(HttpStatus.CREATED).body(DocumentMapper.toResponse(saved));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable String uploadId) {
+        String uid = FirebasePrincipal.current().uid();
+        uploadSessionService.abortSession(uploadId, uid);
+        return ResponseEntity.noContent().build();
+    }
+}
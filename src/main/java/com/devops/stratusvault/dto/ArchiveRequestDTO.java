@@ -0,0 +1,21 @@
+package com.devops.stratusvault.dto;
+
+import java.util.List;
+
+public class ArchiveRequestDTO {
+    private List<Long> documentIds;
+
+    public ArchiveRequestDTO() {}
+
+    public ArchiveRequestDTO(List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+}
@@ -0,0 +1,31 @@
+package com.devops.stratusvault.dto;
+
+import java.util.List;
+
+public class BatchShareRequestDTO {
+    private List<Long> documentIds;
+    private List<String> emails;
+
+    public BatchShareRequestDTO() {}
+
+    public BatchShareRequestDTO(List<Long> documentIds, List<String> emails) {
+        this.documentIds = documentIds;
+        this.emails = emails;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public List<String> getEmails() {
+        return emails;
+    }
+
+    public void setEmails(List<String> emails) {
+        this.emails = emails;
+    }
+}
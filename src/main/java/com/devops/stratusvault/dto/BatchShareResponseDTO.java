@@ -0,0 +1,13 @@
+package com.devops.stratusvault.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk share. Unknown emails (users who never signed in) are skipped rather than
+ * failing the batch; {@code permissionsCreated} excludes pairs that were already shared.
+ */
+public record BatchShareResponseDTO(int documentCount,
+                                    List<String> sharedWith,
+                                    List<String> unknownEmails,
+                                    int permissionsCreated) {
+}
@@ -0,0 +1,41 @@
+package com.devops.stratusvault.dto;
+
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a listing ordered by (uploadTimeStamp, id) descending: the next page holds
+ * the documents strictly before this one. Clients treat the encoded form as opaque.
+ */
+public record DocumentCursor(LocalDateTime uploadTimeStamp, long id) {
+
+    // Sorts after every real document, so the first page needs no special-cased query
+    public static final DocumentCursor START = new DocumentCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public static DocumentCursor after(DocumentResponseDTO last) {
+        return new DocumentCursor(last.uploadTimeStamp(), last.id());
+    }
+
+    public String encode() {
+        String raw = uploadTimeStamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DocumentCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new DocumentCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -10,4 +10,12 @@ public record DocumentResponseDTO(Long id,
                                   String contentType,
                                   LocalDateTime uploadTimeStamp,
                                   UserResponseDTO owner) {
+
+    // Flat form for JPQL constructor expressions, which cannot nest "new"
+    public DocumentResponseDTO(long id, String fileName, String gcsPath, long originalSize, long compressedSize,
+                               String contentType, LocalDateTime uploadTimeStamp,
+                               String ownerFirebaseUid, String ownerEmail) {
+        this(id, fileName, gcsPath, originalSize, compressedSize, contentType, uploadTimeStamp,
+                new UserResponseDTO(ownerFirebaseUid, ownerEmail));
+    }
 }
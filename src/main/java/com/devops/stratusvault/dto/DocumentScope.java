@@ -0,0 +1,25 @@
+package com.devops.stratusvault.dto;
+
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Which documents a listing covers, relative to the caller.
+ */
+public enum DocumentScope {
+    ALL,
+    OWNED,
+    SHARED;
+
+    public static DocumentScope parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("scope must be one of all, owned, shared");
+        }
+    }
+}
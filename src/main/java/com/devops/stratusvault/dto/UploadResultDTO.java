@@ -0,0 +1,7 @@
+package com.devops.stratusvault.dto;
+
+/**
+ * One file of a multi-file upload: {@code document} on success, {@code error} otherwise.
+ */
+public record UploadResultDTO(String fileName, DocumentResponseDTO document, String error) {
+}
@@ -0,0 +1,39 @@
+package com.devops.stratusvault.dto;
+
+public class UploadSessionRequestDTO {
+    private String fileName;
+    private String contentType;
+    private Integer chunkSize;
+
+    public UploadSessionRequestDTO() {}
+
+    public UploadSessionRequestDTO(String fileName, String contentType, Integer chunkSize) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.chunkSize = chunkSize;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
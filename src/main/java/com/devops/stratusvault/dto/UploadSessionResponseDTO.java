@@ -0,0 +1,12 @@
+package com.devops.stratusvault.dto;
+
+/**
+ * State of a chunked upload. {@code nextChunk} is where a client resumes after a failure.
+ */
+public record UploadSessionResponseDTO(String uploadId,
+                                       String fileName,
+                                       Integer chunkSize,
+                                       Integer nextChunk,
+                                       Long receivedBytes,
+                                       Boolean finalChunkReceived) {
+}
@@ -1,13 +1,19 @@
 package com.devops.stratusvault.exceptionhandler;
 
 import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+import com.devops.stratusvault.exceptionhandler.errors.ConflictException;
 import com.devops.stratusvault.exceptionhandler.errors.ForbiddenException;
 import com.devops.stratusvault.exceptionhandler.errors.NotFoundException;
+import com.devops.stratusvault.exceptionhandler.errors.StorageBusyException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.Map;
 
@@ -32,6 +38,34 @@ public class ApiExceptionHandler {
         return Map.of("message", ex.getMessage());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConflict(ConflictException ex) {
+        return Map.of("message", ex.getMessage());
+    }
+
+    // Two requests raced on the same versioned row (e.g. the same upload chunk sent twice)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConcurrentUpdate(OptimisticLockingFailureException ex) {
+        return Map.of("message", "Concurrent update, please retry");
+    }
+
+    // Storage bulkhead full: tell clients to back off briefly rather than queue indefinitely
+    @ExceptionHandler(StorageBusyException.class)
+    public ResponseEntity<Map<String, String>> handleStorageBusy(StorageBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", ex.getMessage()));
+    }
+
+    // A file over max-file-size, or a request (e.g. a multi-file upload) over max-request-size
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public Map<String, String> handleUploadTooLarge(MaxUploadSizeExceededException ex) {
+        return Map.of("message", "Upload too large; use the chunked upload API (/api/documents/uploads) for big files");
+    }
+
     // Optional: if a duplicate share slips through the race-safe save
     @ExceptionHandler(DataIntegrityViolationException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
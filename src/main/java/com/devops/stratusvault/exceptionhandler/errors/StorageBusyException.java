@@ -0,0 +1,9 @@
+package com.devops.stratusvault.exceptionhandler.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StorageBusyException extends RuntimeException {
+    public StorageBusyException(String message) { super(message); }
+}
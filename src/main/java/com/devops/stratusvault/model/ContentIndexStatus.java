@@ -0,0 +1,11 @@
+package com.devops.stratusvault.model;
+
+public enum ContentIndexStatus {
+    // Waiting for (or being processed by) ContentIndexer
+    PENDING,
+    INDEXED,
+    // Not a text format; nothing to index
+    SKIPPED,
+    // Gave up after repeated errors; a reindex puts it back to PENDING
+    FAILED
+}
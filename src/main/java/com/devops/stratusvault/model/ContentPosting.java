@@ -0,0 +1,39 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One entry of the full-text inverted index: {@code term} occurs {@code frequency} times in the
+ * document. Rows are written in bulk by {@code ContentIndexService}; the entity mainly exists so
+ * the schema is managed alongside the others.
+ */
+@Entity
+@Table(
+        name = "content_postings",
+        // Reindexing and deletes drop a document's postings
+        indexes = @Index(name = "idx_content_postings_document", columnList = "document_id")
+)
+public class ContentPosting {
+
+    @EmbeddedId
+    private ContentPostingId id;
+
+    private int frequency;
+
+    public ContentPosting() {
+
+    }
+
+    public ContentPosting(ContentPostingId id, int frequency) {
+        this.id = id;
+        this.frequency = frequency;
+    }
+
+    public ContentPostingId getId() {
+        return id;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+}
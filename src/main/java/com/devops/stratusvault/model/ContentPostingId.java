@@ -0,0 +1,45 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Term first, so the primary key is also the term -> documents lookup
+@Embeddable
+public class ContentPostingId implements Serializable {
+
+    @Column(name = "term", length = 64, nullable = false)
+    private String term;
+
+    @Column(name = "document_id", nullable = false)
+    private long documentId;
+
+    public ContentPostingId() {}
+
+    public ContentPostingId(String term, long documentId) {
+        this.term = term;
+        this.documentId = documentId;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public long getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ContentPostingId that)) return false;
+        return documentId == that.documentId && Objects.equals(term, that.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(term, documentId);
+    }
+}
@@ -1,11 +1,18 @@
 package com.devops.stratusvault.model;
 
+import com.devops.stratusvault.compression.Codec;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents",
+        indexes = {
+                // Serves the owner's keyset-paginated listing
+                @Index(name = "idx_documents_owner_uploaded", columnList = "owner_id, upload_time_stamp, id"),
+                // Counts the documents sharing a blob (reference reconciliation, GC safety check)
+                @Index(name = "idx_documents_gcs_path", columnList = "gcs_path")
+        })
 public class Document {
 
     @Id
@@ -19,6 +26,22 @@ public class Document {
     private LocalDateTime uploadTimeStamp;
     private String contentType;
 
+    // Encoded SeekIndex for ranged reads; null for objects uploaded before it existed
+    @Column(name = "seek_index")
+    private byte[] seekIndex;
+
+    // At-rest encoding; null on rows written before codecs were selectable, which are gzip
+    @Enumerated(EnumType.STRING)
+    private Codec codec;
+
+    public static final int SEARCH_TEXT_LENGTH = 1024;
+
+    // Lower-cased "fileName contentType ownerEmail", written once at upload and cut to the column
+    // length. Carries the pg_trgm GIN index behind metadata search, which SearchIndexSetup creates
+    // (Hibernate cannot express it)
+    @Column(name = "search_text", length = SEARCH_TEXT_LENGTH)
+    private String searchText;
+
     @ManyToOne(fetch = FetchType.EAGER, optional = false)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
@@ -101,6 +124,30 @@ public class Document {
         this.contentType = contentType;
     }
 
+    public byte[] getSeekIndex() {
+        return seekIndex;
+    }
+
+    public void setSeekIndex(byte[] seekIndex) {
+        this.seekIndex = seekIndex;
+    }
+
+    public Codec getCodec() {
+        return Codec.orDefault(codec);
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public String getSearchText() {
+        return searchText;
+    }
+
+    public void setSearchText(String searchText) {
+        this.searchText = searchText;
+    }
+
 //    @Override
 //    public String toString() {
 //        return "Document{" +
@@ -0,0 +1,105 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content indexing state of one document, and the durable work queue for {@code ContentIndexer}:
+ * a row is written as PENDING in the upload transaction, so a document whose in-memory task was
+ * dropped (full queue, restart) is still picked up by the next sweep.
+ */
+@Entity
+@Table(
+        name = "document_content_index",
+        indexes = @Index(name = "idx_document_content_index_due", columnList = "status, next_attempt_at")
+)
+public class DocumentContentIndex {
+
+    @Id
+    @Column(name = "document_id")
+    private long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ContentIndexStatus status;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private int attempts;
+
+    // Distinct terms written to content_postings
+    private int termCount;
+
+    private LocalDateTime indexedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public DocumentContentIndex() {
+
+    }
+
+    public DocumentContentIndex(long documentId, LocalDateTime now) {
+        this.documentId = documentId;
+        this.status = ContentIndexStatus.PENDING;
+        this.nextAttemptAt = now;
+    }
+
+    public long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(long documentId) {
+        this.documentId = documentId;
+    }
+
+    public ContentIndexStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ContentIndexStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getTermCount() {
+        return termCount;
+    }
+
+    public void setTermCount(int termCount) {
+        this.termCount = termCount;
+    }
+
+    public LocalDateTime getIndexedAt() {
+        return indexedAt;
+    }
+
+    public void setIndexedAt(LocalDateTime indexedAt) {
+        this.indexedAt = indexedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
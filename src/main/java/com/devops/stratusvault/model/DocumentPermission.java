@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 @Entity
 @Table(
         name = "document_permission",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"document_id","shared_with_user_id"})
+        uniqueConstraints = @UniqueConstraint(columnNames = {"document_id","shared_with_user_id"}),
+        // "Shared with me" lookups start from the recipient
+        indexes = @Index(name = "idx_document_permission_recipient", columnList = "shared_with_user_id, document_id")
 )
 public class DocumentPermission {
 
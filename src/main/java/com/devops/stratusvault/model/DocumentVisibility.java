@@ -0,0 +1,54 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized "who can see what": one row per owner and per recipient of every document, with the
+ * upload time copied in. Listings and access checks become a single range scan on
+ * (user_id, upload_ts, document_id) instead of an owner-OR-shared query.
+ * <p>
+ * Rows are written in the same transaction as the upload, share or delete that changes visibility;
+ * {@code DocumentVisibilityService.rebuild} recreates the table from documents and permissions.
+ */
+@Entity
+@Table(
+        name = "user_document_visibility",
+        indexes = {
+                @Index(name = "idx_visibility_user_uploaded", columnList = "user_id, upload_ts, document_id"),
+                @Index(name = "idx_visibility_document", columnList = "document_id")
+        }
+)
+public class DocumentVisibility {
+
+    @EmbeddedId
+    private DocumentVisibilityId id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VisibilityRole role;
+
+    @Column(name = "upload_ts")
+    private LocalDateTime uploadTs;
+
+    public DocumentVisibility() {}
+
+    public DocumentVisibility(long userId, long documentId, VisibilityRole role, LocalDateTime uploadTs) {
+        this.id = new DocumentVisibilityId(userId, documentId);
+        this.role = role;
+        this.uploadTs = uploadTs;
+    }
+
+    public DocumentVisibilityId getId() {
+        return id;
+    }
+
+    public VisibilityRole getRole() {
+        return role;
+    }
+
+    public LocalDateTime getUploadTs() {
+        return uploadTs;
+    }
+}
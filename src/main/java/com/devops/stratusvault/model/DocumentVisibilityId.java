@@ -0,0 +1,44 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class DocumentVisibilityId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "document_id", nullable = false)
+    private long documentId;
+
+    public DocumentVisibilityId() {}
+
+    public DocumentVisibilityId(long userId, long documentId) {
+        this.userId = userId;
+        this.documentId = documentId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DocumentVisibilityId other)) return false;
+        return userId == other.userId && documentId == other.documentId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, documentId);
+    }
+}
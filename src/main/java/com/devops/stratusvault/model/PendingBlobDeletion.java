@@ -0,0 +1,83 @@
+package com.devops.stratusvault.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for a stored object that is no longer referenced. Written in the same transaction
+ * that dropped the last reference, and drained by {@code BlobGarbageCollector}, so storage deletes
+ * never happen inside a request transaction and never before that transaction commits.
+ */
+@Entity
+@Table(
+        name = "pending_blob_deletions",
+        indexes = @Index(name = "idx_pending_blob_deletions_due", columnList = "next_attempt_at")
+)
+public class PendingBlobDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private String storagePath;
+
+    @Column(nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    // Doubles as a lease: a claimed row is pushed into the future until its outcome is recorded
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public PendingBlobDeletion() {
+
+    }
+
+    public PendingBlobDeletion(String storagePath, LocalDateTime now) {
+        this.storagePath = storagePath;
+        this.enqueuedAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
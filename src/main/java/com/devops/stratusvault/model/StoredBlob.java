@@ -0,0 +1,127 @@
+package com.devops.stratusvault.model;
+
+import com.devops.stratusvault.compression.Codec;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One physical compressed object in the blob store, shared by every {@link Document} whose content
+ * hashes the same. {@code refCount} is the number of documents pointing at {@code storagePath};
+ * the object is deleted when it drops to zero.
+ */
+@Entity
+@Table(name = "blobs")
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    // Hex SHA-256 content key (see StoredBlobService for how it's derived)
+    @Column(unique = true, nullable = false)
+    private String contentHash;
+
+    @Column(unique = true, nullable = false)
+    private String storagePath;
+
+    private long originalSize;
+    private long compressedSize;
+
+    @Column(name = "seek_index")
+    private byte[] seekIndex;
+
+    // At-rest encoding; null on rows written before codecs were selectable, which are gzip
+    @Enumerated(EnumType.STRING)
+    private Codec codec;
+
+    private long refCount;
+    private LocalDateTime createdAt;
+
+    // Last time a reference was taken; null on rows written before it was tracked (use createdAt)
+    private LocalDateTime lastReferencedAt;
+
+    public StoredBlob() {
+
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public long getOriginalSize() {
+        return originalSize;
+    }
+
+    public void setOriginalSize(long originalSize) {
+        this.originalSize = originalSize;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public void setCompressedSize(long compressedSize) {
+        this.compressedSize = compressedSize;
+    }
+
+    public byte[] getSeekIndex() {
+        return seekIndex;
+    }
+
+    public void setSeekIndex(byte[] seekIndex) {
+        this.seekIndex = seekIndex;
+    }
+
+    public Codec getCodec() {
+        return Codec.orDefault(codec);
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastReferencedAt() {
+        return lastReferencedAt;
+    }
+
+    public void setLastReferencedAt(LocalDateTime lastReferencedAt) {
+        this.lastReferencedAt = lastReferencedAt;
+    }
+}
@@ -0,0 +1,198 @@
+package com.devops.stratusvault.model;
+
+import com.devops.stratusvault.compression.Codec;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-progress chunked upload. Each acknowledged chunk is stored as its own compressed part object;
+ * the running totals below are everything needed to assemble the final gzip object and its seek
+ * index at finalize time, when the {@link Document} row is created.
+ */
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    private String id;
+
+    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    private String fileName;
+    private String contentType;
+    private int chunkSize;
+
+    // Chosen from the first chunk's sample; null until chunk 0 has been received
+    @Enumerated(EnumType.STRING)
+    private Codec codec;
+    private Integer compressionLevel;
+
+    // Chunks are accepted strictly in order, so this is also the index of the next expected chunk
+    private int receivedChunks;
+    private boolean finalChunkReceived;
+
+    private long originalSize;
+    // Total size of the parts received so far (for gzip: deflate segments, excluding header and trailer)
+    private long compressedSize;
+    private long crc32;
+
+    // Running SHA-256 chain over per-chunk digests; becomes the content key at finalize
+    @Column(name = "hash_state")
+    private byte[] hashState;
+
+    // Absolute block start offsets in the assembled object, as big-endian longs
+    @Column(name = "block_offsets")
+    private byte[] blockOffsets;
+
+    // Per-attempt id of each acknowledged chunk's part object, as 16-byte UUIDs in chunk order
+    @Column(name = "part_ids")
+    private byte[] partIds;
+
+    private LocalDateTime createdAt;
+
+    @Version
+    private long version;
+
+    public UploadSession() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public void setOwner(User owner) {
+        this.owner = owner;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Integer getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(Integer compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    public void setReceivedChunks(int receivedChunks) {
+        this.receivedChunks = receivedChunks;
+    }
+
+    public boolean isFinalChunkReceived() {
+        return finalChunkReceived;
+    }
+
+    public void setFinalChunkReceived(boolean finalChunkReceived) {
+        this.finalChunkReceived = finalChunkReceived;
+    }
+
+    public long getOriginalSize() {
+        return originalSize;
+    }
+
+    public void setOriginalSize(long originalSize) {
+        this.originalSize = originalSize;
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    public void setCompressedSize(long compressedSize) {
+        this.compressedSize = compressedSize;
+    }
+
+    public long getCrc32() {
+        return crc32;
+    }
+
+    public void setCrc32(long crc32) {
+        this.crc32 = crc32;
+    }
+
+    public byte[] getHashState() {
+        return hashState;
+    }
+
+    public void setHashState(byte[] hashState) {
+        this.hashState = hashState;
+    }
+
+    public byte[] getBlockOffsets() {
+        return blockOffsets;
+    }
+
+    public void setBlockOffsets(byte[] blockOffsets) {
+        this.blockOffsets = blockOffsets;
+    }
+
+    public byte[] getPartIds() {
+        return partIds;
+    }
+
+    public void setPartIds(byte[] partIds) {
+        this.partIds = partIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
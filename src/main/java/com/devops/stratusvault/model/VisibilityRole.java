@@ -0,0 +1,9 @@
+package com.devops.stratusvault.model;
+
+/**
+ * Why a user can see a document, as recorded in {@link DocumentVisibility}.
+ */
+public enum VisibilityRole {
+    OWNER,
+    READER
+}
@@ -0,0 +1,40 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.model.ContentPosting;
+import com.devops.stratusvault.model.ContentPostingId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ContentPostingRepository extends JpaRepository<ContentPosting, ContentPostingId> {
+
+    @Modifying
+    @Query(value = "DELETE FROM content_postings WHERE document_id = :documentId", nativeQuery = true)
+    int deleteByDocumentId(@Param("documentId") long documentId);
+
+    /**
+     * Ids of the user's visible documents containing every one of {@code terms}, most occurrences
+     * first. Each term is a primary-key range scan; the visibility join drops what the user cannot see.
+     */
+    @Query(value = """
+           SELECT p.document_id
+           FROM content_postings p
+           JOIN user_document_visibility v ON v.document_id = p.document_id
+           WHERE p.term IN (:terms)
+             AND v.user_id = (SELECT u.id FROM app_users u WHERE u.firebase_uid = :firebaseUid)
+           GROUP BY p.document_id
+           HAVING COUNT(*) = :termCount
+           ORDER BY SUM(p.frequency) DESC, p.document_id DESC
+           OFFSET :offset
+           LIMIT :limit
+           """, nativeQuery = true)
+    List<Long> searchVisible(@Param("firebaseUid") String firebaseUid,
+                             @Param("terms") Collection<String> terms,
+                             @Param("termCount") long termCount,
+                             @Param("offset") int offset,
+                             @Param("limit") int limit);
+}
@@ -0,0 +1,56 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.model.DocumentContentIndex;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface DocumentContentIndexRepository extends JpaRepository<DocumentContentIndex, Long> {
+
+    @Query("""
+           SELECT c.documentId FROM DocumentContentIndex c
+           WHERE c.status = com.devops.stratusvault.model.ContentIndexStatus.PENDING
+             AND c.nextAttemptAt <= :now
+           ORDER BY c.nextAttemptAt, c.documentId
+           """)
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Serializes the postings write with a concurrent delete of the same document
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM DocumentContentIndex c WHERE c.documentId = :documentId")
+    Optional<DocumentContentIndex> lockById(@Param("documentId") long documentId);
+
+    @Modifying
+    @Query("DELETE FROM DocumentContentIndex c WHERE c.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") long documentId);
+
+    // Reindex support: queue documents that have never been through the indexer
+    @Modifying
+    @Query(value = """
+           INSERT INTO document_content_index (document_id, status, next_attempt_at, attempts, term_count)
+           SELECT d.id, 'PENDING', :now, 0, 0
+           FROM documents d
+           WHERE true  -- keeps ON CONFLICT from being parsed as a join condition
+           ON CONFLICT (document_id) DO NOTHING
+           """, nativeQuery = true)
+    int enqueueMissing(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = """
+           UPDATE document_content_index
+           SET status = 'PENDING', next_attempt_at = :now, attempts = 0, last_error = NULL
+           WHERE status <> 'PENDING'
+           """, nativeQuery = true)
+    int requeueAll(@Param("now") LocalDateTime now);
+
+    @Query("SELECT c.status, COUNT(c) FROM DocumentContentIndex c GROUP BY c.status")
+    List<Object[]> countByStatus();
+}
@@ -2,9 +2,12 @@ package com.devops.stratusvault.repository;
 
 import com.devops.stratusvault.model.DocumentPermission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+
 public interface DocumentPermissionRepository extends JpaRepository<DocumentPermission, Long> {
 
     // When you only have the caller's Firebase UID (e.g., download path)
@@ -26,4 +29,30 @@ public interface DocumentPermissionRepository extends JpaRepository<DocumentPerm
            """)
     boolean existsPermissionWithUserId(@Param("docId") Long documentId,
                                        @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    // Race-free share: a concurrent duplicate is skipped instead of failing the transaction
+    @Modifying
+    @Query(value = """
+           insert into document_permission (document_id, shared_with_user_id, permission_level)
+           values (:docId, :userId, :level)
+           on conflict (document_id, shared_with_user_id) do nothing
+           """, nativeQuery = true)
+    int insertIfAbsent(@Param("docId") long documentId,
+                       @Param("userId") long userId,
+                       @Param("level") String permissionLevel);
+
+    // Bulk share: every (document, recipient) pair in one statement
+    @Modifying
+    @Query(value = """
+           insert into document_permission (document_id, shared_with_user_id, permission_level)
+           select d.id, u.id, :level
+           from documents d
+           cross join app_users u
+           where d.id in (:docIds)
+             and u.id in (:userIds)
+           on conflict (document_id, shared_with_user_id) do nothing
+           """, nativeQuery = true)
+    int insertAllIfAbsent(@Param("docIds") Collection<Long> documentIds,
+                          @Param("userIds") Collection<Long> userIds,
+                          @Param("level") String permissionLevel);
+}
@@ -1,27 +1,77 @@
 package com.devops.stratusvault.repository;
 
+import com.devops.stratusvault.dto.DocumentResponseDTO;
 import com.devops.stratusvault.model.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    // Ownership check without loading entities: ids that do not exist or belong to someone else do not come back
+    @Query("SELECT d.id FROM Document d WHERE d.id IN :ids AND d.owner.firebaseUid = :firebaseUid")
+    List<Long> findOwnedIds(@Param("ids") Collection<Long> ids, @Param("firebaseUid") String firebaseUid);
+
+    // Authorization and metadata in one round trip: ids the user cannot see simply do not come back
+    @Query("""
+           SELECT d FROM Document d
+           JOIN FETCH d.owner
+           WHERE d.id IN :ids
+             AND EXISTS (SELECT 1 FROM DocumentVisibility v
+                         JOIN User u ON u.id = v.id.userId
+                         WHERE v.id.documentId = d.id
+                           AND u.firebaseUid = :firebaseUid)
+           """)
+    List<Document> findVisibleTo(@Param("ids") Collection<Long> ids, @Param("firebaseUid") String firebaseUid);
+
+    /**
+     * Ids of the user's visible documents whose search text contains {@code pattern} (a LIKE
+     * pattern) or fuzzily matches {@code query} word-wise (pg_trgm {@code <%}). Filename prefix
+     * matches rank first, then word similarity, then newest.
+     */
+    @Query(value = """
+           SELECT d.id
+           FROM user_document_visibility v
+           JOIN documents d ON d.id = v.document_id
+           WHERE v.user_id = (SELECT u.id FROM app_users u WHERE u.firebase_uid = :firebaseUid)
+             AND (d.search_text LIKE :pattern OR :query <% d.search_text)
+           ORDER BY (d.search_text LIKE :prefix) DESC,
+                    word_similarity(:query, d.search_text) DESC,
+                    v.upload_ts DESC,
+                    d.id DESC
+           OFFSET :offset
+           LIMIT :limit
+           """, nativeQuery = true)
+    List<Long> searchVisible(@Param("firebaseUid") String firebaseUid,
+                             @Param("query") String query,
+                             @Param("pattern") String pattern,
+                             @Param("prefix") String prefix,
+                             @Param("offset") int offset,
+                             @Param("limit") int limit);
+
     @Query("""
-      SELECT DISTINCT d
-      FROM Document d
-      JOIN FETCH d.owner o
-      WHERE o.firebaseUid = :firebaseUid
-         OR EXISTS (
-              SELECT 1
-              FROM DocumentPermission p
-              JOIN p.sharedWithUser su
-              WHERE p.document = d
-                AND su.firebaseUid = :firebaseUid
-         )
-      """)
-    List<Document> findDocumentsOwnedByOrSharedWithUser(@Param("firebaseUid") String firebaseUid);
-
-//        List<Document> findDocumentsVisibleTo(String firebaseUid);
+           SELECT new com.devops.stratusvault.dto.DocumentResponseDTO(
+                  d.id, d.fileName, d.gcsPath, d.originalSize, d.compressedSize, d.contentType,
+                  d.uploadTimeStamp, o.firebaseUid, o.email)
+           FROM Document d
+           JOIN d.owner o
+           WHERE d.id IN :ids
+           """)
+    List<DocumentResponseDTO> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    // Fills search_text on rows written before it existed, a bounded batch per call; cut to the
+    // column length (Document.SEARCH_TEXT_LENGTH) like DocumentSearchService.searchTextOf
+    @Modifying
+    @Query(value = """
+           UPDATE documents d
+           SET search_text = left(lower(concat_ws(' ', d.file_name, d.content_type, u.email)), 1024)
+           FROM app_users u
+           WHERE u.id = d.owner_id
+             AND d.id IN (SELECT id FROM documents WHERE search_text IS NULL LIMIT :batchSize)
+           """, nativeQuery = true)
+    int backfillSearchText(@Param("batchSize") int batchSize);
 }
@@ -0,0 +1,104 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.model.DocumentVisibility;
+import com.devops.stratusvault.model.DocumentVisibilityId;
+import com.devops.stratusvault.model.VisibilityRole;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface DocumentVisibilityRepository extends JpaRepository<DocumentVisibility, DocumentVisibilityId> {
+
+    // Idempotent: re-sharing, or a row already written by the backfill, is a no-op
+    @Modifying
+    @Query(value = """
+           INSERT INTO user_document_visibility (user_id, document_id, role, upload_ts)
+           VALUES (:userId, :documentId, :role, :uploadTs)
+           ON CONFLICT (user_id, document_id) DO NOTHING
+           """, nativeQuery = true)
+    int insertIfAbsent(@Param("userId") long userId,
+                       @Param("documentId") long documentId,
+                       @Param("role") String role,
+                       @Param("uploadTs") LocalDateTime uploadTs);
+
+    @Modifying
+    @Query(value = """
+           INSERT INTO user_document_visibility (user_id, document_id, role, upload_ts)
+           SELECT u.id, d.id, :role, d.upload_time_stamp
+           FROM documents d
+           CROSS JOIN app_users u
+           WHERE d.id IN (:documentIds)
+             AND u.id IN (:userIds)
+           ON CONFLICT (user_id, document_id) DO NOTHING
+           """, nativeQuery = true)
+    int insertAllIfAbsent(@Param("documentIds") Collection<Long> documentIds,
+                          @Param("userIds") Collection<Long> userIds,
+                          @Param("role") String role);
+
+    @Modifying
+    @Query("DELETE FROM DocumentVisibility v WHERE v.id.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") long documentId);
+
+    @Query("""
+           SELECT (COUNT(v) > 0)
+           FROM DocumentVisibility v
+           JOIN User u ON u.id = v.id.userId
+           WHERE v.id.documentId = :documentId
+             AND u.firebaseUid = :firebaseUid
+           """)
+    boolean isVisibleTo(@Param("documentId") long documentId, @Param("firebaseUid") String firebaseUid);
+
+    // Keyset page of the user's documents, newest first; a null role means owned and shared alike
+    @Query("""
+           SELECT new com.devops.stratusvault.dto.DocumentResponseDTO(
+                  d.id, d.fileName, d.gcsPath, d.originalSize, d.compressedSize, d.contentType,
+                  d.uploadTimeStamp, o.firebaseUid, o.email)
+           FROM DocumentVisibility v
+           JOIN User u ON u.id = v.id.userId
+           JOIN Document d ON d.id = v.id.documentId
+           JOIN d.owner o
+           WHERE u.firebaseUid = :firebaseUid
+             AND (:role IS NULL OR v.role = :role)
+             AND (:contentType IS NULL OR d.contentType = :contentType)
+             AND (v.uploadTs < :cursorTime OR (v.uploadTs = :cursorTime AND v.id.documentId < :cursorId))
+           ORDER BY v.uploadTs DESC, v.id.documentId DESC
+           """)
+    List<DocumentResponseDTO> findPage(@Param("firebaseUid") String firebaseUid,
+                                       @Param("role") VisibilityRole role,
+                                       @Param("contentType") String contentType,
+                                       @Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") long cursorId,
+                                       Limit limit);
+
+    // Rebuild support: derive every row from documents and permissions
+    @Modifying
+    @Query(value = """
+           INSERT INTO user_document_visibility (user_id, document_id, role, upload_ts)
+           SELECT src.user_id, src.document_id, src.role, src.upload_ts
+           FROM (
+                SELECT d.owner_id AS user_id, d.id AS document_id, 'OWNER' AS role, d.upload_time_stamp AS upload_ts
+                FROM documents d
+                UNION ALL
+                SELECT p.shared_with_user_id, p.document_id, p.permission_level, d.upload_time_stamp
+                FROM document_permission p
+                JOIN documents d ON d.id = p.document_id
+           ) src
+           WHERE true  -- keeps ON CONFLICT from being parsed as a join condition
+           ON CONFLICT (user_id, document_id) DO NOTHING
+           """, nativeQuery = true)
+    int backfill();
+
+    @Modifying
+    @Query(value = "DELETE FROM user_document_visibility", nativeQuery = true)
+    int deleteAllRows();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_document_visibility)", nativeQuery = true)
+    boolean hasAnyRows();
+}
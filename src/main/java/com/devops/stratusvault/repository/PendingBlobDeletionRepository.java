@@ -0,0 +1,31 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.model.PendingBlobDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingBlobDeletionRepository extends JpaRepository<PendingBlobDeletion, Long> {
+
+    // SKIP LOCKED lets several instances drain the outbox without handing out the same rows
+    @Query(value = """
+           select * from pending_blob_deletions
+           where next_attempt_at <= :now
+           order by next_attempt_at, id
+           limit :batchSize
+           for update skip locked
+           """, nativeQuery = true)
+    List<PendingBlobDeletion> lockDue(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    // Paths that gained a reference again (or never lost it) must not be deleted from storage
+    @Query(value = """
+           select b.storage_path from blobs b where b.storage_path in (:paths)
+           union
+           select d.gcs_path from documents d where d.gcs_path in (:paths)
+           """, nativeQuery = true)
+    List<String> findStillReferenced(@Param("paths") Collection<String> paths);
+}
@@ -0,0 +1,89 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByContentHash(String contentHash);
+
+    // Rows at zero are being deleted by a concurrent release; don't resurrect them
+    @Modifying
+    @Query("""
+           update StoredBlob b
+           set b.refCount = b.refCount + 1,
+               b.lastReferencedAt = :now
+           where b.contentHash = :hash
+             and b.refCount > 0
+           """)
+    int incrementReferences(@Param("hash") String contentHash, @Param("now") LocalDateTime now);
+
+    // Race-safe registration: if another upload of the same content got there first, just add a reference
+    @Modifying
+    @Query(value = """
+           insert into blobs (content_hash, storage_path, codec, original_size, compressed_size, ref_count, created_at,
+                              last_referenced_at)
+           values (:hash, :path, :codec, :originalSize, :compressedSize, 1, :createdAt, :createdAt)
+           on conflict (content_hash) do update set ref_count = blobs.ref_count + 1,
+                                                    last_referenced_at = excluded.last_referenced_at
+           """, nativeQuery = true)
+    int insertOrIncrement(@Param("hash") String contentHash,
+                          @Param("path") String storagePath,
+                          @Param("codec") String codec,
+                          @Param("originalSize") long originalSize,
+                          @Param("compressedSize") long compressedSize,
+                          @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("""
+           update StoredBlob b
+           set b.seekIndex = :seekIndex
+           where b.contentHash = :hash
+             and b.seekIndex is null
+           """)
+    int setSeekIndexIfMissing(@Param("hash") String contentHash, @Param("seekIndex") byte[] seekIndex);
+
+    @Modifying
+    @Query("""
+           update StoredBlob b
+           set b.refCount = b.refCount - 1
+           where b.storagePath = :path
+           """)
+    int decrementReferences(@Param("path") String storagePath);
+
+    @Modifying
+    @Query("""
+           delete from StoredBlob b
+           where b.storagePath = :path
+             and b.refCount <= 0
+           """)
+    int deleteUnreferenced(@Param("path") String storagePath);
+
+    // Blobs claiming more references than there are documents, and not referenced since the cutoff
+    @Query(value = """
+           select b.storage_path
+           from blobs b
+           where coalesce(b.last_referenced_at, b.created_at) < :cutoff
+             and b.ref_count > (select count(*) from documents d where d.gcs_path = b.storage_path)
+           limit :limit
+           """, nativeQuery = true)
+    List<String> findOverReferenced(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Re-checks both conditions under the row lock, so a reference taken meanwhile wins
+    @Modifying
+    @Query(value = """
+           update blobs b
+           set ref_count = (select count(*) from documents d where d.gcs_path = b.storage_path)
+           where b.storage_path = :path
+             and coalesce(b.last_referenced_at, b.created_at) < :cutoff
+             and b.ref_count > (select count(*) from documents d where d.gcs_path = b.storage_path)
+           """, nativeQuery = true)
+    int resetReferences(@Param("path") String storagePath, @Param("cutoff") LocalDateTime cutoff);
+}
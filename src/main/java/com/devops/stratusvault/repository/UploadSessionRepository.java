@@ -0,0 +1,7 @@
+package com.devops.stratusvault.repository;
+
+import com.devops.stratusvault.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+}
@@ -3,9 +3,12 @@ package com.devops.stratusvault.repository;
 import com.devops.stratusvault.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByFirebaseUid(String firebaseUid);
     Optional<User> findByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
 }
@@ -0,0 +1,93 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.model.PendingBlobDeletion;
+import com.devops.stratusvault.repository.PendingBlobDeletionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code pending_blob_deletions} outbox. {@link #enqueue} joins the caller's transaction;
+ * the remaining methods are the short transactions {@link BlobGarbageCollector} runs around the
+ * (untransacted) storage calls.
+ */
+@Service
+public class BlobDeletionService {
+
+    // Retries back off exponentially from the first delay up to the cap
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PendingBlobDeletionRepository pendingBlobDeletionRepository;
+
+    public BlobDeletionService(PendingBlobDeletionRepository pendingBlobDeletionRepository) {
+        this.pendingBlobDeletionRepository = pendingBlobDeletionRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String storagePath) {
+        pendingBlobDeletionRepository.save(new PendingBlobDeletion(storagePath, LocalDateTime.now()));
+    }
+
+    /**
+     * Claims up to {@code batchSize} due rows by leasing them until {@code now + lease}; a collector
+     * that dies mid-batch simply lets the lease run out.
+     */
+    @Transactional
+    public List<PendingBlobDeletion> claimDue(int batchSize, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingBlobDeletion> due = pendingBlobDeletionRepository.lockDue(now, batchSize);
+        for (PendingBlobDeletion deletion : due) {
+            deletion.setAttempts(deletion.getAttempts() + 1);
+            deletion.setNextAttemptAt(now.plus(lease));
+        }
+        return due;
+    }
+
+    /**
+     * Of the given paths, those that are referenced by a blob or document row again.
+     */
+    @Transactional(readOnly = true)
+    public Set<String> findStillReferenced(Collection<String> paths) {
+        return new HashSet<>(pendingBlobDeletionRepository.findStillReferenced(paths));
+    }
+
+    @Transactional
+    public void complete(Collection<Long> ids) {
+        pendingBlobDeletionRepository.deleteAllByIdInBatch(ids);
+    }
+
+    /**
+     * Schedules another attempt for each failed row, keyed by id, with the error that caused it.
+     */
+    @Transactional
+    public void reschedule(Map<Long, String> errorsById) {
+        LocalDateTime now = LocalDateTime.now();
+        for (PendingBlobDeletion deletion : pendingBlobDeletionRepository.findAllById(errorsById.keySet())) {
+            String error = errorsById.get(deletion.getId());
+            deletion.setLastError((error == null || error.length() <= MAX_ERROR_LENGTH)
+                    ? error : error.substring(0, MAX_ERROR_LENGTH));
+            deletion.setNextAttemptAt(now.plus(retryDelay(deletion.getAttempts())));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long pendingCount() {
+        return pendingBlobDeletionRepository.count();
+    }
+
+    static Duration retryDelay(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << doublings);
+        return (delay.compareTo(MAX_RETRY_DELAY) > 0) ? MAX_RETRY_DELAY : delay;
+    }
+}
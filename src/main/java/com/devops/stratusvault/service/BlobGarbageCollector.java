@@ -0,0 +1,118 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.model.PendingBlobDeletion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the {@code pending_blob_deletions} outbox in the background: claim a batch, drop paths
+ * that are referenced again, batch-delete the rest from storage, then record the outcome. No
+ * database transaction is open during the storage call.
+ */
+@Component
+public class BlobGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobGarbageCollector.class);
+
+    /**
+     * Cumulative counters since startup. {@code missing} counts objects that were already gone,
+     * which is still a successful collection.
+     */
+    public record Stats(long deleted, long missing, long skippedReferenced, long failed, long runs) {}
+
+    private final BlobDeletionService blobDeletionService;
+    private final BlobStore blobStore;
+    private final int batchSize;
+    private final Duration lease;
+
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong skippedReferenced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    public BlobGarbageCollector(BlobDeletionService blobDeletionService, BlobStore blobStore,
+                                @Value("${app.storage.gc.batch-size:500}") int batchSize,
+                                @Value("${app.storage.gc.lease:5m}") Duration lease) {
+        this.blobDeletionService = blobDeletionService;
+        this.blobStore = blobStore;
+        this.batchSize = batchSize;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval-ms:30000}",
+            initialDelayString = "${app.storage.gc.interval-ms:30000}")
+    public void collect() {
+        runs.incrementAndGet();
+        int claimed;
+        do {
+            claimed = collectBatch();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * @return the number of outbox rows claimed
+     */
+    int collectBatch() {
+        List<PendingBlobDeletion> batch = blobDeletionService.claimDue(batchSize, lease);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Dedup safety: a path is only deleted while nothing in the database points at it
+        Set<String> referenced = blobDeletionService.findStillReferenced(
+                batch.stream().map(PendingBlobDeletion::getStoragePath).toList());
+        List<Long> done = new ArrayList<>();
+        List<PendingBlobDeletion> toDelete = new ArrayList<>();
+        for (PendingBlobDeletion deletion : batch) {
+            if (referenced.contains(deletion.getStoragePath())) {
+                done.add(deletion.getId());
+                skippedReferenced.incrementAndGet();
+            } else {
+                toDelete.add(deletion);
+            }
+        }
+
+        Map<Long, String> errors = new HashMap<>();
+        if (!toDelete.isEmpty()) {
+            try {
+                List<Boolean> results = blobStore.deleteAll(
+                        toDelete.stream().map(PendingBlobDeletion::getStoragePath).toList());
+                for (int i = 0; i < toDelete.size(); i++) {
+                    done.add(toDelete.get(i).getId());
+                    (results.get(i) ? deleted : missing).incrementAndGet();
+                }
+            } catch (Exception e) {
+                // The whole batch is retried later; deletes are idempotent
+                log.warn("Blob deletion batch of {} failed: {}", toDelete.size(), e.toString());
+                for (PendingBlobDeletion deletion : toDelete) {
+                    errors.put(deletion.getId(), e.toString());
+                }
+                failed.addAndGet(toDelete.size());
+            }
+        }
+
+        if (!done.isEmpty()) {
+            blobDeletionService.complete(done);
+        }
+        if (!errors.isEmpty()) {
+            blobDeletionService.reschedule(errors);
+        }
+        return batch.size();
+    }
+
+    public Stats stats() {
+        return new Stats(deleted.get(), missing.get(), skippedReferenced.get(), failed.get(), runs.get());
+    }
+}
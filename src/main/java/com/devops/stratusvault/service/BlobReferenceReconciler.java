@@ -0,0 +1,77 @@
+package com.devops.stratusvault.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically corrects blob reference counts that exceed the documents pointing at the blob, which
+ * is what an upload that died between taking its reference and saving its Document leaves behind.
+ * Only blobs not referenced for {@code grace} are considered, so uploads still in flight are left
+ * alone. A blob that ends up with no references goes to the deletion outbox like any other.
+ */
+@Component
+public class BlobReferenceReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobReferenceReconciler.class);
+
+    /**
+     * Cumulative counters since startup: blobs whose count was lowered but are still in use, blobs
+     * released entirely, and runs.
+     */
+    public record Stats(long corrected, long released, long runs) {}
+
+    private final StoredBlobService storedBlobService;
+    private final int batchSize;
+    private final Duration grace;
+
+    private final AtomicLong corrected = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    public BlobReferenceReconciler(StoredBlobService storedBlobService,
+                                   @Value("${app.storage.reconcile.batch-size:1000}") int batchSize,
+                                   @Value("${app.storage.reconcile.grace:1h}") Duration grace) {
+        this.storedBlobService = storedBlobService;
+        this.batchSize = batchSize;
+        this.grace = grace;
+    }
+
+    // One batch per run: a blob skipped because it was referenced meanwhile would otherwise be found again
+    @Scheduled(fixedDelayString = "${app.storage.reconcile.interval-ms:3600000}",
+            initialDelayString = "${app.storage.reconcile.interval-ms:3600000}")
+    public void reconcile() {
+        runs.incrementAndGet();
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        List<String> paths = storedBlobService.findOverReferenced(cutoff, batchSize);
+        int lowered = 0;
+        int freed = 0;
+        for (String path : paths) {
+            try {
+                switch (storedBlobService.reconcile(path, cutoff)) {
+                    case CORRECTED -> lowered++;
+                    case RELEASED -> freed++;
+                    case UNCHANGED -> { }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Reconciling references of {} failed: {}", path, e.toString());
+            }
+        }
+        corrected.addAndGet(lowered);
+        released.addAndGet(freed);
+        if (lowered + freed > 0) {
+            log.info("Corrected reference counts of {} blobs still in use; released {} unused blobs", lowered, freed);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(corrected.get(), released.get(), runs.get());
+    }
+}
@@ -0,0 +1,57 @@
+package com.devops.stratusvault.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage for immutable compressed blobs, addressed by key (the document's {@code gcsPath}).
+ * All operations stream; nothing here requires a whole object in memory.
+ * <p>
+ * The backend is chosen with {@code app.storage.backend}: {@code gcs} (default, {@link GcsService})
+ * or {@code local} ({@link LocalBlobStore}).
+ */
+public interface BlobStore {
+
+    /**
+     * Opens a streaming write. The blob becomes visible under {@code key} when the stream is closed.
+     */
+    OutputStream openWrite(String key, String contentType) throws IOException;
+
+    /**
+     * Writes a small blob in one call. Only for payloads that comfortably fit in memory.
+     */
+    void write(String key, byte[] bytes, String contentType) throws IOException;
+
+    InputStream openRead(String key) throws IOException;
+
+    /**
+     * Streams the byte range {@code [start, endExclusive)}; only that range is read from storage.
+     */
+    InputStream openRange(String key, long start, long endExclusive) throws IOException;
+
+    /**
+     * Concatenates the source blobs, in order, into {@code targetKey}. Sources are left in place.
+     */
+    void compose(List<String> sourceKeys, String targetKey, String contentType) throws IOException;
+
+    /**
+     * @return true if a blob was deleted, false if none existed
+     */
+    boolean delete(String key);
+
+    /**
+     * Deletes several blobs. Backends that support batched deletes override this to save round-trips.
+     *
+     * @return for each key, in order, whether a blob was deleted (false if none existed)
+     */
+    default List<Boolean> deleteAll(List<String> keys) throws IOException {
+        List<Boolean> results = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            results.add(delete(key));
+        }
+        return results;
+    }
+}
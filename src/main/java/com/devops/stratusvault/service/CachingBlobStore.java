@@ -0,0 +1,319 @@
+package com.devops.stratusvault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded local disk cache in front of a remote {@link BlobStore}. Stored objects are
+ * immutable per key, so the only invalidation needed is on delete.
+ * <p>
+ * A full read that misses streams from the delegate and, if the object is admitted, copies it into
+ * a temp file on the way through; the file joins the cache once the read completes. Admission keeps
+ * one-off downloads out: an object must have been read at least {@code minAccesses} times within the
+ * frequency window and be no larger than {@code maxObjectSize}. Eviction is Caffeine's size-weighted
+ * W-TinyLFU (recency and frequency), and an evicted file is deleted from disk. Hits are served with
+ * {@link FileChannelInputStream}, so whole-object copies use {@link FileChannel#transferTo}.
+ * <p>
+ * Ranged reads are served from the cache when the object is there but never populate it.
+ */
+public class CachingBlobStore implements BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingBlobStore.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int TRACKED_KEYS = 100_000;
+
+    /**
+     * Cumulative counters since startup; {@code admitted} objects were written to disk, and
+     * {@code rejected} ones were read in full but turned out too large.
+     */
+    public record Stats(long hits, long misses, long admitted, long rejected, long evictions,
+                        long cachedBytes, double hitRatio) {}
+
+    private record CachedFile(Path path, long size) {}
+
+    private final BlobStore delegate;
+    private final Path directory;
+    private final long maxObjectSize;
+    private final int minAccesses;
+
+    private final Cache<String, CachedFile> files;
+    private final Cache<String, AtomicInteger> accessCounts;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public CachingBlobStore(BlobStore delegate, Path directory, long maxBytes, long maxObjectSize,
+                            int minAccesses, Duration frequencyWindow) throws IOException {
+        this.delegate = delegate;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxObjectSize = maxObjectSize;
+        this.minAccesses = minAccesses;
+        Files.createDirectories(this.directory);
+
+        this.files = Caffeine.newBuilder()
+                // Weighed in KiB so multi-GiB budgets fit Caffeine's int weights
+                .maximumWeight(Math.max(1, maxBytes / 1024))
+                .weigher((String key, CachedFile file) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, file.size() / 1024)))
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.accessCounts = Caffeine.newBuilder()
+                .maximumSize(TRACKED_KEYS)
+                .expireAfterWrite(frequencyWindow)
+                .build();
+
+        // Anything left over from a previous run is unindexed; start clean
+        try (Stream<Path> leftovers = Files.list(this.directory)) {
+            for (Path leftover : (Iterable<Path>) leftovers::iterator) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    @Override
+    public OutputStream openWrite(String key, String contentType) throws IOException {
+        return delegate.openWrite(key, contentType);
+    }
+
+    @Override
+    public void write(String key, byte[] bytes, String contentType) throws IOException {
+        delegate.write(key, bytes, contentType);
+    }
+
+    @Override
+    public InputStream openRead(String key) throws IOException {
+        InputStream cached = openCached(key, 0, Long.MAX_VALUE);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        InputStream remote = delegate.openRead(key);
+        if (!shouldAdmit(key)) {
+            return remote;
+        }
+        Path temp = directory.resolve(fileNameOf(key) + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        return new PopulatingInputStream(remote, key, temp, Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long endExclusive) throws IOException {
+        InputStream cached = openCached(key, start, endExclusive);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return delegate.openRange(key, start, endExclusive);
+    }
+
+    @Override
+    public void compose(List<String> sourceKeys, String targetKey, String contentType) throws IOException {
+        delegate.compose(sourceKeys, targetKey, contentType);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        files.invalidate(key);
+        return delegate.delete(key);
+    }
+
+    @Override
+    public List<Boolean> deleteAll(List<String> keys) throws IOException {
+        files.invalidateAll(keys);
+        return delegate.deleteAll(keys);
+    }
+
+    public Stats stats() {
+        CacheStats cacheStats = files.stats();
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return new Stats(hitCount, misses.get(), admitted.get(), rejected.get(), cacheStats.evictionCount(),
+                cachedBytes.get(), (total == 0) ? 0.0 : (double) hitCount / total);
+    }
+
+    private InputStream openCached(String key, long start, long endExclusive) throws IOException {
+        CachedFile file = files.getIfPresent(key);
+        if (file == null) {
+            return null;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and open
+            return null;
+        }
+        // An open channel keeps reading even if the file is evicted and unlinked meanwhile
+        return new FileChannelInputStream(channel, start, Math.min(endExclusive, file.size()));
+    }
+
+    private boolean shouldAdmit(String key) {
+        int accesses = accessCounts.get(key, k -> new AtomicInteger()).incrementAndGet();
+        return accesses >= minAccesses;
+    }
+
+    private void commit(String key, Path temp, long size) {
+        if (size > maxObjectSize) {
+            discard(temp);
+            return;
+        }
+        Path target = directory.resolve(fileNameOf(key));
+        files.asMap().computeIfAbsent(key, k -> {
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log.warn("Could not add {} to the blob cache: {}", key, e.toString());
+                return null;
+            }
+            admitted.incrementAndGet();
+            cachedBytes.addAndGet(size);
+            return new CachedFile(target, size);
+        });
+        // Lost the race to a concurrent reader (or the move failed): our copy is redundant
+        discard(temp);
+    }
+
+    private void onRemoval(String key, CachedFile file, RemovalCause cause) {
+        if (file == null) {
+            return;
+        }
+        cachedBytes.addAndGet(-file.size());
+        discard(file.path());
+    }
+
+    private static void discard(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // best effort; leftovers are cleared on the next start
+        }
+    }
+
+    // Keys may contain slashes; a digest gives a flat, safe file name
+    private static String fileNameOf(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Copies everything the caller reads into the temp file. Only a read that reaches the end
+     * populates the cache; an abandoned or oversized read just deletes the temp file.
+     */
+    private final class PopulatingInputStream extends FilterInputStream {
+        private final String key;
+        private final Path temp;
+        private OutputStream copy;
+        private long copied;
+        private boolean complete;
+
+        PopulatingInputStream(InputStream in, String key, Path temp, OutputStream copy) {
+            super(in);
+            this.key = key;
+            this.temp = temp;
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return (read(single, 0, 1) == -1) ? -1 : (single[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read == -1) {
+                complete = true;
+            } else if (read > 0 && copy != null) {
+                copied += read;
+                if (copied > maxObjectSize) {
+                    rejected.incrementAndGet();
+                    abandon();
+                } else {
+                    copy.write(b, off, read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipping would leave a hole in the copy
+            abandon();
+            return in.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Decoders (e.g. GZIPInputStream) stop at their trailer without asking for EOF;
+            // one probe tells a finished read from an abandoned one
+            if (copy != null && !complete) {
+                try {
+                    complete = in.read() == -1;
+                } catch (IOException e) {
+                    complete = false;
+                }
+            }
+            try {
+                in.close();
+            } finally {
+                if (copy != null) {
+                    OutputStream finished = copy;
+                    copy = null;
+                    try {
+                        finished.close();
+                        if (complete) {
+                            commit(key, temp, copied);
+                        } else {
+                            discard(temp);
+                        }
+                    } catch (IOException e) {
+                        discard(temp);
+                    }
+                }
+            }
+        }
+
+        private void abandon() {
+            if (copy != null) {
+                try {
+                    copy.close();
+                } catch (IOException ignored) {
+                    // the temp file is deleted either way
+                }
+                copy = null;
+                discard(temp);
+            }
+        }
+    }
+}
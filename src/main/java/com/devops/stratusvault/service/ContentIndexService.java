@@ -0,0 +1,163 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.model.ContentIndexStatus;
+import com.devops.stratusvault.model.DocumentContentIndex;
+import com.devops.stratusvault.repository.ContentPostingRepository;
+import com.devops.stratusvault.repository.DocumentContentIndexRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@code document_content_index} queue and the {@code content_postings} it fills.
+ * {@link #enqueue} and {@link #removeDocument} join the caller's transaction; the rest are the short
+ * transactions {@link ContentIndexer} runs around the (untransacted) blob read and tokenizing.
+ */
+@Service
+public class ContentIndexService {
+
+    static final int MAX_ATTEMPTS = 5;
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofMinutes(1);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final DocumentContentIndexRepository contentIndexRepository;
+    private final ContentPostingRepository postingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    // Repository methods are timed by Spring Boot (spring.data.repository.invocations); plain JDBC is not
+    private final Timer postingInserts;
+
+    public ContentIndexService(DocumentContentIndexRepository contentIndexRepository,
+                               ContentPostingRepository postingRepository, JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry) {
+        this.contentIndexRepository = contentIndexRepository;
+        this.postingRepository = postingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postingInserts = Timer.builder("stratusvault.db.query")
+                .description("JDBC statements issued outside the Spring Data repositories")
+                .tag("query", "content_postings.insert")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(long documentId) {
+        contentIndexRepository.save(new DocumentContentIndex(documentId, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeDocument(long documentId) {
+        // Deleting the state row first takes its lock, so an in-flight index run cannot write after us
+        contentIndexRepository.deleteByDocumentId(documentId);
+        postingRepository.deleteByDocumentId(documentId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findDue(int limit) {
+        return contentIndexRepository.findDueIds(LocalDateTime.now(), Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isPending(long documentId) {
+        return contentIndexRepository.findById(documentId)
+                .map(state -> state.getStatus() == ContentIndexStatus.PENDING)
+                .orElse(false);
+    }
+
+    /**
+     * Replaces the document's postings. Returns false, writing nothing, if the document was
+     * deleted (or its state row otherwise removed) while it was being tokenized.
+     */
+    @Transactional
+    public boolean storePostings(long documentId, Map<String, Integer> termFrequencies) {
+        Optional<DocumentContentIndex> locked = contentIndexRepository.lockById(documentId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        postingRepository.deleteByDocumentId(documentId);
+
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            rows.add(new Object[]{entry.getKey(), documentId, entry.getValue()});
+            if (rows.size() == INSERT_BATCH_SIZE) {
+                insertPostings(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            insertPostings(rows);
+        }
+
+        DocumentContentIndex state = locked.get();
+        state.setStatus(ContentIndexStatus.INDEXED);
+        state.setTermCount(termFrequencies.size());
+        state.setIndexedAt(LocalDateTime.now());
+        state.setLastError(null);
+        return true;
+    }
+
+    @Transactional
+    public void markSkipped(long documentId) {
+        contentIndexRepository.findById(documentId).ifPresent(state -> state.setStatus(ContentIndexStatus.SKIPPED));
+    }
+
+    /**
+     * Records a failed attempt: retried with backoff until {@link #MAX_ATTEMPTS}, then FAILED.
+     */
+    @Transactional
+    public void recordFailure(long documentId, String error) {
+        contentIndexRepository.findById(documentId).ifPresent(state -> {
+            int attempts = state.getAttempts() + 1;
+            state.setAttempts(attempts);
+            state.setLastError((error == null || error.length() <= MAX_ERROR_LENGTH)
+                    ? error : error.substring(0, MAX_ERROR_LENGTH));
+            if (attempts >= MAX_ATTEMPTS) {
+                state.setStatus(ContentIndexStatus.FAILED);
+            } else {
+                state.setNextAttemptAt(LocalDateTime.now().plus(FIRST_RETRY_DELAY.multipliedBy(1L << (attempts - 1))));
+            }
+        });
+    }
+
+    /**
+     * Queues documents for (re)indexing: those never seen by the indexer, plus with {@code all}
+     * every document already indexed, skipped or failed.
+     *
+     * @return the number of documents queued
+     */
+    @Transactional
+    public int reindex(boolean all) {
+        LocalDateTime now = LocalDateTime.now();
+        int queued = contentIndexRepository.enqueueMissing(now);
+        if (all) {
+            queued += contentIndexRepository.requeueAll(now);
+        }
+        return queued;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<ContentIndexStatus, Long> countByStatus() {
+        Map<ContentIndexStatus, Long> counts = new EnumMap<>(ContentIndexStatus.class);
+        for (Object[] row : contentIndexRepository.countByStatus()) {
+            counts.put((ContentIndexStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private void insertPostings(List<Object[]> rows) {
+        // Plain JDBC batches: thousands of rows per document would be thousands of entity inserts
+        postingInserts.record(() -> jdbcTemplate.batchUpdate(
+                "INSERT INTO content_postings (term, document_id, frequency) VALUES (?, ?, ?)", rows));
+    }
+}
@@ -0,0 +1,226 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.repository.DocumentRepository;
+import com.google.common.io.ByteStreams;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Background full-text indexing of text-bearing documents.
+ * <p>
+ * Uploads {@link #enqueue} a document inside their transaction; once it commits the id is offered
+ * to a small fixed pool of low-priority platform threads with a bounded queue. The pool size caps
+ * how many blob reads and tokenizers run at once, so indexing takes a fixed, small share of storage
+ * and CPU next to interactive traffic. When the queue is full the offer is simply dropped: the
+ * PENDING row stays in {@code document_content_index}, and {@link #sweep} feeds such rows back in
+ * only as fast as the queue has room. That is the backpressure, and it also covers restarts.
+ * <p>
+ * A worker streams the blob through the decompressor into {@link ContentTokenizer} and writes the
+ * resulting postings in one short transaction. No transaction is open while the blob is read.
+ */
+@Component
+public class ContentIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentIndexer.class);
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Cumulative counters since startup; {@code dropped} counts offers refused by a full queue
+     * (those documents are picked up again by the sweep).
+     */
+    public record Stats(long indexed, long skipped, long failed, long dropped, int queued, int active) {}
+
+    private final ContentIndexService contentIndexService;
+    private final DocumentRepository documentRepository;
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final long maxIndexedBytes;
+    private final int maxTerms;
+
+    private final ThreadPoolExecutor executor;
+    // Ids queued or running here, so the sweep and the upload hook never double-submit
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ContentIndexer(ContentIndexService contentIndexService, DocumentRepository documentRepository,
+                          BlobStore blobStore,
+                          @Value("${app.content-index.enabled:true}") boolean enabled,
+                          @Value("${app.content-index.workers:2}") int workers,
+                          @Value("${app.content-index.queue-capacity:100}") int queueCapacity,
+                          @Value("${app.content-index.max-indexed-size:64MB}") DataSize maxIndexedSize,
+                          @Value("${app.content-index.max-terms:50000}") int maxTerms) {
+        this.contentIndexService = contentIndexService;
+        this.documentRepository = documentRepository;
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.maxIndexedBytes = maxIndexedSize.toBytes();
+        this.maxTerms = maxTerms;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "content-indexer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a newly stored document if it is a text format. Must run inside the transaction that
+     * creates it; the worker is only handed the id after that transaction commits.
+     */
+    public void enqueue(Document document) {
+        if (!ContentTokenizer.isIndexable(document.getContentType(), document.getFileName())) {
+            return;
+        }
+        contentIndexService.enqueue(document.getId());
+        long documentId = document.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(documentId);
+            }
+        });
+    }
+
+    /**
+     * Tops the queue up from PENDING rows that are due, never beyond its free capacity.
+     */
+    @Scheduled(fixedDelayString = "${app.content-index.sweep-interval-ms:60000}",
+            initialDelayString = "${app.content-index.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        for (long documentId : contentIndexService.findDue(room + inFlight.size())) {
+            if (!inFlight.contains(documentId) && !submit(documentId)) {
+                break;
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(indexed.get(), skipped.get(), failed.get(), dropped.get(),
+                executor.getQueue().size(), executor.getActiveCount());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Queued ids are still PENDING in the database and are picked up after restart
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    private boolean submit(long documentId) {
+        if (!enabled || !inFlight.add(documentId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    index(documentId);
+                } finally {
+                    inFlight.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(documentId);
+            dropped.incrementAndGet();
+            return false;
+        }
+    }
+
+    void index(long documentId) {
+        try {
+            if (!contentIndexService.isPending(documentId)) {
+                return;
+            }
+            Optional<Document> documentOptional = documentRepository.findById(documentId);
+            if (documentOptional.isEmpty()) {
+                return;
+            }
+            Document document = documentOptional.get();
+            if (!ContentTokenizer.isIndexable(document.getContentType(), document.getFileName())) {
+                contentIndexService.markSkipped(documentId);
+                skipped.incrementAndGet();
+                return;
+            }
+
+            Map<String, Integer> terms;
+            try (Reader reader = openText(document)) {
+                terms = ContentTokenizer.countTerms(reader, maxTerms);
+            }
+            if (contentIndexService.storePostings(documentId, terms)) {
+                indexed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.warn("Content indexing of document {} failed: {}", documentId, e.toString());
+            try {
+                contentIndexService.recordFailure(documentId, e.toString());
+            } catch (RuntimeException recordError) {
+                // The row stays PENDING and due, so the next sweep retries it anyway
+                log.warn("Could not record indexing failure for document {}", documentId, recordError);
+            }
+        }
+    }
+
+    /**
+     * The document's decompressed content, capped at {@code max-indexed-size}, decoded as UTF-8
+     * with malformed input replaced rather than failing the run.
+     */
+    private Reader openText(Document document) throws IOException {
+        InputStream stored = blobStore.openRead(document.getGcsPath());
+        try {
+            InputStream content = (document.getCodec() == Codec.STORED)
+                    ? stored : new GZIPInputStream(stored, STREAM_BUFFER_SIZE);
+            return new InputStreamReader(ByteStreams.limit(content, maxIndexedBytes),
+                    StandardCharsets.UTF_8.newDecoder()
+                            .onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        } catch (IOException | RuntimeException e) {
+            stored.close();
+            throw e;
+        }
+    }
+}
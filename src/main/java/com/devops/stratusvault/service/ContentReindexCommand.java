@@ -0,0 +1,49 @@
+package com.devops.stratusvault.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Queues existing documents for content indexing when the app is started with
+ * {@code --reindex-content=missing} (documents the indexer has never seen, e.g. uploaded before it
+ * existed) or {@code --reindex-content=all} (everything, e.g. after a tokenizer change). The work
+ * itself is done by {@link ContentIndexer} at its usual pace while the app serves traffic.
+ */
+@Component
+public class ContentReindexCommand implements ApplicationRunner {
+
+    static final String OPTION = "reindex-content";
+
+    private static final Logger log = LoggerFactory.getLogger(ContentReindexCommand.class);
+
+    private final ContentIndexService contentIndexService;
+    private final ContentIndexer contentIndexer;
+
+    public ContentReindexCommand(ContentIndexService contentIndexService, ContentIndexer contentIndexer) {
+        this.contentIndexService = contentIndexService;
+        this.contentIndexer = contentIndexer;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        List<String> values = args.getOptionValues(OPTION);
+        String mode = values.isEmpty() ? "missing" : values.get(0);
+        boolean all = switch (mode) {
+            case "all" -> true;
+            case "missing" -> false;
+            default -> throw new IllegalStateException("Unknown --" + OPTION + ": " + mode + " (expected missing or all)");
+        };
+        int queued = contentIndexService.reindex(all);
+        log.info("Queued {} documents for content indexing ({}); status: {}", queued, mode,
+                contentIndexService.countByStatus());
+        contentIndexer.sweep();
+    }
+}
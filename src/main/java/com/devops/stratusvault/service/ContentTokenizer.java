@@ -0,0 +1,104 @@
+package com.devops.stratusvault.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased runs of letters and digits, reading through a fixed buffer so a
+ * file of any size is tokenized in constant memory (plus the term table, which is capped).
+ * Documents and queries go through the same rules, so a query term matches what indexing wrote.
+ */
+public final class ContentTokenizer {
+
+    public static final int MIN_TERM_LENGTH = 2;
+    // Longer runs (hashes, base64 blobs) are not useful search terms and are dropped
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final Set<String> TEXT_CONTENT_TYPES = Set.of(
+            "application/json", "application/x-ndjson", "application/csv", "application/xml",
+            "application/x-yaml", "application/yaml", "application/markdown");
+    private static final Set<String> TEXT_EXTENSIONS = Set.of(
+            "txt", "csv", "tsv", "json", "ndjson", "md", "markdown", "log", "xml", "yaml", "yml");
+
+    private ContentTokenizer() {}
+
+    /**
+     * True for text, CSV, JSON and Markdown, judged by content type or, for the generic
+     * {@code application/octet-stream} browsers often send, by file extension.
+     */
+    public static boolean isIndexable(String contentType, String fileName) {
+        if (contentType != null) {
+            String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/") || TEXT_CONTENT_TYPES.contains(type) || type.endsWith("+json")) {
+                return true;
+            }
+        }
+        if (fileName == null) {
+            return false;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && TEXT_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Term frequencies of everything {@code reader} yields. Once {@code maxTerms} distinct terms
+     * have been seen, new terms are ignored and known ones are still counted.
+     */
+    public static Map<String, Integer> countTerms(Reader reader, int maxTerms) throws IOException {
+        Map<String, Integer> frequencies = new HashMap<>();
+        char[] buffer = new char[BUFFER_SIZE];
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+        boolean overlong = false;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (Character.isLetterOrDigit(c)) {
+                    if (term.length() < MAX_TERM_LENGTH) {
+                        term.append(Character.toLowerCase(c));
+                    } else {
+                        overlong = true;
+                    }
+                } else if (!term.isEmpty() || overlong) {
+                    addTerm(frequencies, term, overlong, maxTerms);
+                    term.setLength(0);
+                    overlong = false;
+                }
+            }
+        }
+        addTerm(frequencies, term, overlong, maxTerms);
+        return frequencies;
+    }
+
+    /**
+     * Distinct terms of a search query.
+     */
+    public static Set<String> queryTerms(String query) {
+        try {
+            return new HashSet<>(countTerms(new StringReader(query), Integer.MAX_VALUE).keySet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void addTerm(Map<String, Integer> frequencies, StringBuilder term, boolean overlong, int maxTerms) {
+        if (overlong || term.length() < MIN_TERM_LENGTH) {
+            return;
+        }
+        String key = term.toString();
+        if (frequencies.size() < maxTerms) {
+            frequencies.merge(key, 1, Integer::sum);
+        } else {
+            frequencies.computeIfPresent(key, (k, count) -> count + 1);
+        }
+    }
+}
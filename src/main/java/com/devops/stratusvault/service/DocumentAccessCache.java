@@ -0,0 +1,134 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.repository.DocumentVisibilityRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+/**
+ * Read-access decisions keyed by (documentId, firebaseUid), so repeat downloads and previews are
+ * authorized without touching the database, plus each document's download metadata so that an
+ * authorized repeat download does not need the database either.
+ * <p>
+ * A miss costs one primary-key probe on {@code user_document_visibility}. {@link DocumentService} invalidates entries when
+ * a share is added (that one pair) or a document is deleted (every pair for the document); both
+ * happen after commit so a concurrent miss cannot re-cache the old answer. Entries also expire
+ * after {@code app.auth.acl-cache.expire-after-write}, which bounds staleness on other instances.
+ * <p>
+ * Documents never change after upload, so their metadata is only invalidated by deletion, under
+ * the same rules. Invalidation is local, though, and another instance may hold the metadata of a
+ * document deleted here; once the blob collector has removed the object, such a download fails in
+ * storage. Metadata therefore expires after {@code app.download.metadata-cache.expire-after-write},
+ * seconds rather than minutes: enough to absorb bursts of repeat downloads, short enough that other
+ * instances stop using a deleted document's path almost as soon as it is gone.
+ */
+@Component
+public class DocumentAccessCache {
+
+    private record AccessKey(long documentId, String firebaseUid) {}
+
+    private final DocumentVisibilityRepository visibilityRepository;
+    private final Cache<AccessKey, Boolean> decisions;
+    private final Cache<Long, DocumentService.DownloadableFile> downloads;
+
+    public DocumentAccessCache(DocumentVisibilityRepository visibilityRepository,
+                               @Value("${app.auth.acl-cache.maximum-size:100000}") long maximumSize,
+                               @Value("${app.auth.acl-cache.expire-after-write:5m}") Duration expireAfterWrite,
+                               @Value("${app.download.metadata-cache.maximum-size:10000}") long maximumDownloads,
+                               @Value("${app.download.metadata-cache.expire-after-write:10s}") Duration downloadExpireAfterWrite) {
+        this.visibilityRepository = visibilityRepository;
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // Entries carry the seek index, so they are bounded separately and more tightly than decisions
+        this.downloads = Caffeine.newBuilder()
+                .maximumSize(maximumDownloads)
+                .expireAfterWrite(downloadExpireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * True if the user owns the document or it has been shared with them. Unknown documents are
+     * simply not readable.
+     */
+    public boolean canRead(long documentId, String firebaseUid) {
+        return decisions.get(new AccessKey(documentId, firebaseUid),
+                key -> visibilityRepository.isVisibleTo(key.documentId(), key.firebaseUid()));
+    }
+
+    /**
+     * The document's download handle if the user may read it; empty if they may not or it no longer
+     * exists. {@code loader} is only called when the metadata is not cached.
+     */
+    public Optional<DocumentService.DownloadableFile> readableDownload(
+            long documentId, String firebaseUid, LongFunction<Optional<DocumentService.DownloadableFile>> loader) {
+        if (!canRead(documentId, firebaseUid)) {
+            return Optional.empty();
+        }
+        // Missing documents are not cached: the decision above expires on its own
+        return Optional.ofNullable(downloads.get(documentId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public void invalidate(long documentId, String firebaseUid) {
+        afterCommit(() -> decisions.invalidate(new AccessKey(documentId, firebaseUid)));
+    }
+
+    public void invalidateAll(Collection<Long> documentIds, Collection<String> firebaseUids) {
+        afterCommit(() -> {
+            for (long documentId : documentIds) {
+                for (String firebaseUid : firebaseUids) {
+                    decisions.invalidate(new AccessKey(documentId, firebaseUid));
+                }
+            }
+        });
+    }
+
+    public void invalidateDocument(long documentId) {
+        // Deletes are rare next to reads, so a scan beats maintaining a per-document index
+        afterCommit(() -> {
+            downloads.invalidate(documentId);
+            decisions.asMap().keySet().removeIf(key -> key.documentId() == documentId);
+        });
+    }
+
+    public CacheStats stats() {
+        return decisions.stats();
+    }
+
+    public long estimatedSize() {
+        return decisions.estimatedSize();
+    }
+
+    public CacheStats downloadStats() {
+        return downloads.stats();
+    }
+
+    public long downloadEstimatedSize() {
+        return downloads.estimatedSize();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.compression.Codec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Meters for the upload and download pipelines in {@link DocumentService}:
+ * <ul>
+ *   <li>{@code stratusvault.user.lookup}: owner lookup, tagged by whether the user cache answered</li>
+ *   <li>{@code stratusvault.upload.compress}: encoding a new blob and streaming it to storage</li>
+ *   <li>{@code stratusvault.upload.bytes} / {@code stratusvault.download.bytes}: bytes in and out</li>
+ *   <li>{@code stratusvault.upload.compression.ratio}: original / stored size of each new blob</li>
+ *   <li>{@code stratusvault.download.decompress}: CPU time spent inflating one download</li>
+ * </ul>
+ * Content types come from clients, so at most {@code MAX_CONTENT_TYPE_TAGS} distinct values become
+ * tags and the rest are reported as "other".
+ */
+@Component
+public class DocumentMetrics {
+
+    static final int MAX_CONTENT_TYPE_TAGS = 100;
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final Set<String> contentTypeTags = ConcurrentHashMap.newKeySet();
+    private final Timer userLookupCached;
+    private final Timer userLookupLoaded;
+    private final Timer decompression;
+    private final DistributionSummary decompressedBytes;
+
+    public DocumentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.userLookupCached = userLookupTimer("cache");
+        this.userLookupLoaded = userLookupTimer("database");
+        this.decompression = Timer.builder("stratusvault.download.decompress")
+                .description("Time spent inflating gzip content for a download, excluding storage reads")
+                .register(registry);
+        this.decompressedBytes = DistributionSummary.builder("stratusvault.download.decompressed.size")
+                .baseUnit("bytes")
+                .description("Bytes inflated per download")
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordUserLookup(Timer.Sample sample, boolean cached) {
+        sample.stop(cached ? userLookupCached : userLookupLoaded);
+    }
+
+    /**
+     * Records one upload. A deduplicated upload stores nothing, so it only counts towards the bytes
+     * received.
+     */
+    public void recordUpload(Timer.Sample sample, String contentType, Codec codec, long originalSize,
+                             long storedSize, boolean deduplicated) {
+        String type = contentTypeTag(contentType);
+        String codecTag = deduplicated ? "dedup" : codec.name().toLowerCase(Locale.ROOT);
+        sample.stop(Timer.builder("stratusvault.upload.compress")
+                .description("Time to encode a new blob and stream it to storage")
+                .tag("content_type", type)
+                .tag("codec", codecTag)
+                .register(registry));
+        Counter.builder("stratusvault.upload.bytes")
+                .baseUnit("bytes")
+                .tag("content_type", type)
+                .tag("stage", "received")
+                .register(registry)
+                .increment(originalSize);
+        if (deduplicated) {
+            return;
+        }
+        Counter.builder("stratusvault.upload.bytes")
+                .baseUnit("bytes")
+                .tag("content_type", type)
+                .tag("stage", "stored")
+                .register(registry)
+                .increment(storedSize);
+        if (storedSize > 0) {
+            DistributionSummary.builder("stratusvault.upload.compression.ratio")
+                    .description("Original size divided by stored size, per new blob")
+                    .tag("content_type", type)
+                    .tag("codec", codecTag)
+                    .register(registry)
+                    .record((double) originalSize / storedSize);
+        }
+    }
+
+    /**
+     * Counts response body bytes; {@code encoding} is "gzip" when stored bytes went out as-is.
+     */
+    public void recordDownload(String contentType, String encoding, long bytes) {
+        Counter.builder("stratusvault.download.bytes")
+                .baseUnit("bytes")
+                .tag("content_type", contentTypeTag(contentType))
+                .tag("encoding", encoding)
+                .register(registry)
+                .increment(bytes);
+    }
+
+    /**
+     * Inflates {@code compressed} and, on close, records the time spent in the inflater. Time the
+     * read loop spends waiting for compressed bytes from storage is measured separately and
+     * subtracted, so slow storage does not show up as slow decompression.
+     */
+    public InputStream decompress(InputStream compressed, int bufferSize) throws IOException {
+        TimedInputStream source = new TimedInputStream(compressed);
+        GZIPInputStream inflating = new GZIPInputStream(source, bufferSize);
+        source.nanos = 0;
+        return new TimedInputStream(inflating) {
+            @Override
+            protected void onClose() {
+                decompression.record(Math.max(0, nanos - source.nanos), TimeUnit.NANOSECONDS);
+                decompressedBytes.record(bytes);
+            }
+        };
+    }
+
+    String contentTypeTag(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return "none";
+        }
+        String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (contentTypeTags.contains(type)) {
+            return type;
+        }
+        if (contentTypeTags.size() < MAX_CONTENT_TYPE_TAGS) {
+            contentTypeTags.add(type);
+            return type;
+        }
+        return OTHER;
+    }
+
+    private Timer userLookupTimer(String source) {
+        return Timer.builder("stratusvault.user.lookup")
+                .description("Resolving the authenticated caller's user row")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * Sums the time spent in, and bytes returned by, read calls.
+     */
+    private static class TimedInputStream extends FilterInputStream {
+        long nanos;
+        long bytes;
+        private boolean closed;
+
+        TimedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int read = in.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    onClose();
+                }
+            }
+        }
+
+        protected void onClose() {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.repository.ContentPostingRepository;
+import com.devops.stratusvault.repository.DocumentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Search limited to what the caller can see: metadata (file name, content type, owner email) and,
+ * for indexed text documents, content.
+ * <p>
+ * Each document carries a lower-cased {@code search_text} with a pg_trgm GIN index on it, so both
+ * substring/prefix matches ({@code LIKE '%q%'}) and typo-tolerant word matches ({@code <%}) are
+ * index lookups. Joining through {@code user_document_visibility} lets Postgres start from whichever
+ * side is smaller: the caller's documents or the documents matching the query.
+ */
+@Service
+public class DocumentSearchService {
+
+    public static final int MIN_QUERY_LENGTH = 2;
+    public static final int MAX_QUERY_LENGTH = 200;
+    // Results are ranked, so each page re-ranks every match; deep pages are not worth that
+    public static final int MAX_RESULTS = 10_000;
+    // Every term is one more postings scan
+    public static final int MAX_CONTENT_TERMS = 10;
+
+    private final DocumentRepository documentRepository;
+    private final ContentPostingRepository postingRepository;
+
+    public DocumentSearchService(DocumentRepository documentRepository, ContentPostingRepository postingRepository) {
+        this.documentRepository = documentRepository;
+        this.postingRepository = postingRepository;
+    }
+
+    /**
+     * The value stored in {@code documents.search_text}, at most {@link Document#SEARCH_TEXT_LENGTH}
+     * characters. Must agree with the SQL in {@link DocumentRepository#backfillSearchText}.
+     */
+    public static String searchTextOf(String fileName, String contentType, String ownerEmail) {
+        String text = Stream.of(fileName, contentType, ownerEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "))
+                .toLowerCase(Locale.ROOT);
+        if (text.length() <= Document.SEARCH_TEXT_LENGTH) {
+            return text;
+        }
+        // Never split a surrogate pair; Postgres counts the pair as one character anyway
+        int end = Character.isHighSurrogate(text.charAt(Document.SEARCH_TEXT_LENGTH - 1))
+                ? Document.SEARCH_TEXT_LENGTH - 1 : Document.SEARCH_TEXT_LENGTH;
+        return text.substring(0, end);
+    }
+
+    /**
+     * One page of matches, best first. The cursor is opaque to clients; null starts from the top.
+     */
+    @Transactional(readOnly = true)
+    public DocumentService.DocumentPage search(String firebaseUid, String q, String cursor, int limit) {
+        if (limit <= 0 || limit > DocumentService.MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + DocumentService.MAX_PAGE_SIZE);
+        }
+        String query = (q == null) ? "" : q.strip().toLowerCase(Locale.ROOT);
+        if (query.length() < MIN_QUERY_LENGTH || query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be between %d and %d characters"
+                    .formatted(MIN_QUERY_LENGTH, MAX_QUERY_LENGTH));
+        }
+        int offset = decodeOffset(cursor);
+        int fetch = Math.min(limit + 1, MAX_RESULTS - offset);
+        if (fetch <= 0) {
+            return new DocumentService.DocumentPage(List.of(), null);
+        }
+
+        String literal = escapeLike(query);
+        List<Long> ids = documentRepository.searchVisible(firebaseUid, query, "%" + literal + "%", literal + "%",
+                offset, fetch);
+        return toPage(ids, offset, limit);
+    }
+
+    /**
+     * Documents containing every word of {@code q}, from the postings written by
+     * {@link ContentIndexer}. Only text formats that have finished indexing can match.
+     */
+    @Transactional(readOnly = true)
+    public DocumentService.DocumentPage searchContent(String firebaseUid, String q, String cursor, int limit) {
+        if (limit <= 0 || limit > DocumentService.MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + DocumentService.MAX_PAGE_SIZE);
+        }
+        Set<String> terms = (q == null || q.length() > MAX_QUERY_LENGTH) ? Set.of() : ContentTokenizer.queryTerms(q);
+        if (terms.isEmpty() || terms.size() > MAX_CONTENT_TERMS) {
+            throw new BadRequestException("q must contain between 1 and %d words of at least %d characters"
+                    .formatted(MAX_CONTENT_TERMS, ContentTokenizer.MIN_TERM_LENGTH));
+        }
+        int offset = decodeOffset(cursor);
+        int fetch = Math.min(limit + 1, MAX_RESULTS - offset);
+        if (fetch <= 0) {
+            return new DocumentService.DocumentPage(List.of(), null);
+        }
+
+        List<Long> ids = postingRepository.searchVisible(firebaseUid, terms, terms.size(), offset, fetch);
+        return toPage(ids, offset, limit);
+    }
+
+    /**
+     * Turns up to {@code limit + 1} ranked ids into a page; the extra id only signals that more follow.
+     */
+    private DocumentService.DocumentPage toPage(List<Long> ids, int offset, int limit) {
+        boolean more = ids.size() > limit;
+        if (more) {
+            ids = ids.subList(0, limit);
+        }
+        if (ids.isEmpty()) {
+            return new DocumentService.DocumentPage(List.of(), null);
+        }
+
+        // The ranked id list decides the order; the second query only fills in the rows
+        Map<Long, DocumentResponseDTO> rows = new HashMap<>();
+        for (DocumentResponseDTO row : documentRepository.findResponsesByIds(ids)) {
+            rows.put(row.id(), row);
+        }
+        List<DocumentResponseDTO> items = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new DocumentService.DocumentPage(items, more ? encodeOffset(offset + limit) : null);
+    }
+
+    // Backslash is PostgreSQL's default LIKE escape character
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (offset < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -3,59 +3,321 @@ package com.devops.stratusvault.service;
 import com.devops.stratusvault.exceptionhandler.errors.ForbiddenException;
 import com.devops.stratusvault.exceptionhandler.errors.NotFoundException;
 import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.http.HttpStatus;
+import com.devops.stratusvault.compression.BlockInflaterInputStream;
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.compression.CodecSelector;
+import com.devops.stratusvault.compression.SeekIndex;
+import com.devops.stratusvault.compression.SeekableGzipOutputStream;
+import com.devops.stratusvault.compression.ZipArchiveWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.devops.stratusvault.dto.BatchShareResponseDTO;
+import com.devops.stratusvault.dto.DocumentCursor;
+import com.devops.stratusvault.dto.DocumentResponseDTO;
+import com.devops.stratusvault.dto.DocumentScope;
+import com.google.common.io.ByteStreams;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
 
 // your existing imports for MultipartFile, GZIP, etc.
 import org.springframework.web.multipart.MultipartFile;
 
 // your project types:
 import com.devops.stratusvault.model.Document;
-import com.devops.stratusvault.model.DocumentPermission;
 import com.devops.stratusvault.model.PermissionLevel;
+import com.devops.stratusvault.model.StoredBlob;
 import com.devops.stratusvault.model.User;
+import com.devops.stratusvault.model.VisibilityRole;
 import com.devops.stratusvault.repository.DocumentPermissionRepository;
 import com.devops.stratusvault.repository.DocumentRepository;
+import com.devops.stratusvault.repository.DocumentVisibilityRepository;
 import com.devops.stratusvault.repository.UserRepository;
-import org.springframework.web.server.ResponseStatusException;
 
 
 @Service
 public class DocumentService {
 
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
+
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
-    private final GcsService gcsService;
+    private final BlobStore blobStore;
     private final DocumentPermissionRepository documentPermissionRepository;
+    private final StoredBlobService storedBlobService;
+    private final DocumentAccessCache documentAccessCache;
+    private final DocumentVisibilityService visibilityService;
+    private final DocumentVisibilityRepository visibilityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobDeletionService blobDeletionService;
+    private final ContentIndexer contentIndexer;
+    private final ContentIndexService contentIndexService;
+    private final DocumentMetrics metrics;
+
+    // Users are never renamed or deleted, so rows can be cached by firebaseUid indefinitely
+    private static final int USER_CACHE_SIZE = 10_000;
+    private final Cache<String, User> usersByFirebaseUid = Caffeine.newBuilder()
+            .maximumSize(USER_CACHE_SIZE)
+            .recordStats()
+            .build();
+
+    // Fixed per-transfer buffer; heap use stays constant regardless of file size
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Authorized download handle. No storage I/O happens until one of {@link #openContent},
+     * {@link #openStoredContent} or {@link #openContentRange} is called, so the controller can pick
+     * the representation after inspecting the request. Streams are owned by the caller.
+     */
+    public record DownloadableFile(String fileName, String contentType, String gcsPath, Codec codec,
+                                   long originalSize, long compressedSize,
+                                   ZonedDateTime lastModified, SeekIndex seekIndex) {
+
+        /**
+         * Strong validator for the given representation. Objects are immutable per path, so the
+         * path identifies the content; the gzip-encoded body gets its own tag.
+         */
+        public String entityTag(String contentEncoding) {
+            String tag = gcsPath.endsWith(".gz") ? gcsPath.substring(0, gcsPath.length() - 3) : gcsPath;
+            return (contentEncoding == null) ? "\"" + tag + "\"" : "\"" + tag + "-" + contentEncoding + "\"";
+        }
+    }
 
-    @Value("${app.gcs.bucket-name}")
-    private String gcsBucketName;
-
-    public record DownloadableFile(byte[] data, String fileName, String contentType) {}
+    public static final String GZIP_ENCODING = "gzip";
 
-    public DocumentService(DocumentRepository documentRepository, UserRepository userRepository, GcsService gcsService, DocumentPermissionRepository documentPermissionRepository) {
+    public DocumentService(DocumentRepository documentRepository, UserRepository userRepository, BlobStore blobStore, DocumentPermissionRepository documentPermissionRepository, StoredBlobService storedBlobService, DocumentAccessCache documentAccessCache, DocumentVisibilityService visibilityService, DocumentVisibilityRepository visibilityRepository, TransactionTemplate transactionTemplate, BlobDeletionService blobDeletionService, ContentIndexer contentIndexer, ContentIndexService contentIndexService, DocumentMetrics metrics) {
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
-        this.gcsService = gcsService;
+        this.blobStore = blobStore;
         this.documentPermissionRepository = documentPermissionRepository;
+        this.storedBlobService = storedBlobService;
+        this.documentAccessCache = documentAccessCache;
+        this.visibilityService = visibilityService;
+        this.visibilityRepository = visibilityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.blobDeletionService = blobDeletionService;
+        this.contentIndexer = contentIndexer;
+        this.contentIndexService = contentIndexService;
+        this.metrics = metrics;
     }
 
     public Document uploadDocument(MultipartFile multipartFile, String firebaseUid, String email) throws IOException {
         // Find or create the User
+        User user = findOrCreateUser(firebaseUid, email);
+        StoredBlob blob = storeContent(multipartFile);
+        // The transaction starts only now, so no connection is held while the file streams to storage
+        try {
+            return transactionTemplate.execute(status ->
+                    saveNewDocument(multipartFile.getOriginalFilename(), multipartFile.getContentType(), blob, user));
+        } catch (RuntimeException e) {
+            releaseQuietly(blob);
+            throw e;
+        }
+    }
+
+    /**
+     * Per-file result of {@link #uploadDocuments}: exactly one of {@code document} and {@code error} is set.
+     */
+    public record UploadOutcome(String fileName, Document document, String error) {}
+
+    /**
+     * Uploads several files at once. Each file is hashed, compressed and written on its own virtual
+     * thread, at most {@code parallelism} at a time, so the batch takes about as long as its largest
+     * file. The Document rows for all stored files are then saved in one transaction, so the batch
+     * commits once, but still one INSERT per row: ids are IDENTITY-generated, which rules out JDBC
+     * batching. A file that fails to store is reported in its outcome without affecting the others.
+     */
+    public List<UploadOutcome> uploadDocuments(List<MultipartFile> files, String firebaseUid, String email, int parallelism) {
+        User user = findOrCreateUser(firebaseUid, email);
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<StoredBlob>> stored = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                stored.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return storeContent(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } // close() waits for every task
+
+        List<UploadOutcome> outcomes = new ArrayList<>(files.size());
+        List<StoredBlob> blobs = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                blobs.add(stored.get(i).get());
+                outcomes.add(null); // filled in once the rows are saved
+            } catch (ExecutionException e) {
+                blobs.add(null);
+                outcomes.add(new UploadOutcome(files.get(i).getOriginalFilename(), null,
+                        "Error processing file: " + e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for uploads", e);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < files.size(); i++) {
+                    if (blobs.get(i) != null) {
+                        MultipartFile file = files.get(i);
+                        Document saved = saveNewDocument(file.getOriginalFilename(), file.getContentType(), blobs.get(i), user);
+                        outcomes.set(i, new UploadOutcome(file.getOriginalFilename(), saved, null));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            blobs.stream().filter(Objects::nonNull).forEach(this::releaseQuietly);
+            throw e;
+        }
+        return outcomes;
+    }
+
+    /**
+     * Stores the file's content (or takes a reference on identical content already stored) and
+     * returns the blob; the caller owns one reference on it.
+     */
+    private StoredBlob storeContent(MultipartFile multipartFile) throws IOException {
+        Timer.Sample uploadTimer = metrics.start();
+        // Hash the spooled upload first; identical content is stored once and shared between documents,
+        // so a duplicate costs one local read and no compression or storage write. The first block is
+        // kept as the sample for codec selection.
+        String contentHash;
+        byte[] sample = new byte[CodecSelector.SAMPLE_SIZE];
+        int sampleLength;
+        try (InputStream inputStream = multipartFile.getInputStream()) {
+            sampleLength = inputStream.readNBytes(sample, 0, sample.length);
+            contentHash = StoredBlobService.sha256Hex(new SequenceInputStream(
+                    new ByteArrayInputStream(sample, 0, sampleLength), inputStream), STREAM_BUFFER_SIZE);
+        }
+        Optional<StoredBlob> existing = storedBlobService.acquireExisting(contentHash);
+        if (existing.isPresent()) {
+            metrics.recordUpload(uploadTimer, multipartFile.getContentType(), existing.get().getCodec(),
+                    multipartFile.getSize(), 0, true);
+            return existing.get();
+        }
+
+        // Media and archives are stored as-is; everything else is gzipped at a level suited to it
+        CodecSelector.Choice codec = CodecSelector.choose(multipartFile.getContentType(), sample, sampleLength);
+        String gcsObjectName = UUID.randomUUID().toString() + codec.codec().keySuffix();   // Creates a unique ID string
+        WrittenBlob written;
+        try (InputStream inputStream = multipartFile.getInputStream()) {
+            written = writeBlob(inputStream, gcsObjectName, multipartFile.getContentType(), codec);
+        } catch (IOException | RuntimeException e) {
+            // Closing the write stream publishes whatever was sent so far; don't leave it behind
+            discardObject(gcsObjectName);
+            throw e;
+        }
+        metrics.recordUpload(uploadTimer, multipartFile.getContentType(), codec.codec(),
+                written.originalSize(), written.compressedSize(), false);
+
+        StoredBlob blob = storedBlobService.registerNew(contentHash, gcsObjectName, codec.codec(),
+                written.originalSize(), written.compressedSize(), written.seekIndex());
+        if (!blob.getStoragePath().equals(gcsObjectName)) {
+            // A concurrent upload of the same content registered first; ours is redundant
+            discardObject(gcsObjectName);
+        }
+        return blob;
+    }
+
+    // Gives back a reference taken by storeContent when its Document could not be saved
+    /**
+     * Gives back a reference the caller could not hand to a Document; the object is queued for
+     * deletion if that was the last one.
+     */
+    void releaseQuietly(StoredBlob blob) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (storedBlobService.release(blob.getStoragePath())) {
+                    blobDeletionService.enqueue(blob.getStoragePath());
+                }
+            });
+        } catch (RuntimeException ignored) {
+            // best effort; the original failure is what the caller needs to see
+        }
+    }
+
+    private record WrittenBlob(long originalSize, long compressedSize, SeekIndex seekIndex) {}
+
+    /**
+     * Streams {@code inputStream} into a new blob with the chosen codec, counting both sides on the
+     * fly. Gzip goes through the seekable variant, which records block offsets so ranged downloads
+     * can skip ahead.
+     */
+    private WrittenBlob writeBlob(InputStream inputStream, String key, String contentType,
+                                  CodecSelector.Choice codec) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long originalSize = 0;
+        int read;
+        if (codec.codec() == Codec.STORED) {
+            try (OutputStream outputStream = blobStore.openWrite(key, contentType)) {
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                    originalSize += read;
+                }
+            }
+            return new WrittenBlob(originalSize, originalSize, null);
+        }
+        try (SeekableGzipOutputStream gzipOutputStream = new SeekableGzipOutputStream(
+                blobStore.openWrite(key, contentType), STREAM_BUFFER_SIZE,
+                SeekableGzipOutputStream.DEFAULT_BLOCK_SIZE, codec.level())) {
+            while ((read = inputStream.read(buffer)) != -1) {
+                gzipOutputStream.write(buffer, 0, read);
+                originalSize += read;
+            }
+            gzipOutputStream.finish();
+            return new WrittenBlob(originalSize, gzipOutputStream.getCompressedSize(), gzipOutputStream.getSeekIndex());
+        }
+    }
+
+    /**
+     * Owner row for an authenticated caller: no DB access in steady state, at most one query
+     * (plus the insert for a first-time user) otherwise.
+     */
+    public User findOrCreateUser(String firebaseUid, String email) {
+        Timer.Sample sample = metrics.start();
+        User cached = usersByFirebaseUid.getIfPresent(firebaseUid);
+        if (cached != null) {
+            metrics.recordUserLookup(sample, true);
+            return cached;
+        }
         User user = userRepository.findByFirebaseUid(firebaseUid)
                 .orElseGet(() -> {
                     User newUser = new User();
@@ -63,121 +325,335 @@ public class DocumentService {
                     newUser.setEmail(email);
                     return userRepository.save(newUser);
                 });
+        usersByFirebaseUid.put(firebaseUid, user);
+        metrics.recordUserLookup(sample, false);
+        return user;
+    }
 
-        // Read, compress, and get the size of the file
-        byte[] compressedData;
-        try (InputStream inputStream = multipartFile.getInputStream()){
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
-
-            // Copy the original stream to the compressing stream
-            inputStream.transferTo(gzipOutputStream);
-            gzipOutputStream.finish();
-            compressedData = byteArrayOutputStream.toByteArray();
-        }
+    public CacheStats userCacheStats() {
+        return usersByFirebaseUid.stats();
+    }
 
-        //Generate a unique filename and upload to GCS
-        String gcsObjectName = UUID.randomUUID().toString() + ".gz";   // Creates a unique ID string
-        gcsService.uploadFile(compressedData, gcsBucketName, gcsObjectName, multipartFile.getContentType());  // Assume this returns the full path
+    public long userCacheSize() {
+        return usersByFirebaseUid.estimatedSize();
+    }
 
-        //Create the new Document entity
+    /**
+     * Records a document backed by a blob the caller already holds a reference on, together with
+     * the owner's visibility row and, for text formats, a content indexing task.
+     */
+    @Transactional
+    public Document saveNewDocument(String fileName, String contentType, StoredBlob blob, User owner) {
         Document newDocument = new Document();
 
-        newDocument.setFileName(multipartFile.getOriginalFilename());
-        newDocument.setGcsPath(gcsObjectName);
-        newDocument.setOriginalSize(multipartFile.getSize());
-        newDocument.setCompressedSize(compressedData.length);
+        newDocument.setFileName(fileName);
+        newDocument.setGcsPath(blob.getStoragePath());
+        newDocument.setOriginalSize(blob.getOriginalSize());
+        newDocument.setCompressedSize(blob.getCompressedSize());
+        newDocument.setSeekIndex(blob.getSeekIndex());
+        newDocument.setCodec(blob.getCodec());
         newDocument.setUploadTimeStamp(new Timestamp(System.currentTimeMillis()).toLocalDateTime());
-        newDocument.setContentType(multipartFile.getContentType());
-        newDocument.setOwner(user);
+        newDocument.setContentType(contentType);
+        newDocument.setOwner(owner);
+        newDocument.setSearchText(DocumentSearchService.searchTextOf(fileName, contentType, owner.getEmail()));
+
+        Document saved = documentRepository.save(newDocument);
+        visibilityService.recordOwner(saved, owner);
+        // Text formats are indexed for content search in the background once this commits
+        contentIndexer.enqueue(saved);
+        return saved;
+    }
 
-        return documentRepository.save(newDocument);
+    private void discardObject(String gcsObjectName) {
+        try {
+            blobStore.delete(gcsObjectName);
+        } catch (RuntimeException ignored) {
+            // best effort; the original failure is what the caller needs to see
+        }
     }
 
-    public List<Document> findForUser(String firebaseUid) {
-        return documentRepository.findDocumentsOwnedByOrSharedWithUser(firebaseUid);
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * One page of a listing; {@code nextCursor} is null on the last page.
+     */
+    public record DocumentPage(List<DocumentResponseDTO> items, String nextCursor) {}
+
+    /**
+     * Lists documents visible to the user, newest first, without loading entities. One extra row
+     * is fetched to tell whether another page follows.
+     */
+    public DocumentPage listForUser(String firebaseUid, DocumentScope scope, String contentType, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        DocumentCursor position = DocumentCursor.decode(cursor);
+        String typeFilter = (contentType == null || contentType.isBlank()) ? null : contentType;
+
+        VisibilityRole role = switch (scope) {
+            case OWNED -> VisibilityRole.OWNER;
+            case SHARED -> VisibilityRole.READER;
+            case ALL -> null;
+        };
+        List<DocumentResponseDTO> rows = visibilityRepository.findPage(firebaseUid, role, typeFilter,
+                position.uploadTimeStamp(), position.id(), Limit.of(limit + 1));
+
+        if (rows.size() <= limit) {
+            return new DocumentPage(rows, null);
+        }
+        List<DocumentResponseDTO> page = rows.subList(0, limit);
+        return new DocumentPage(page, DocumentCursor.after(page.get(limit - 1)).encode());
+    }
+
+    public Optional<DownloadableFile> downloadDocument(long documentId, String firebaseUid) {
+        // Owner or shared-with check, then the metadata; on a repeat download both come from the cache.
+        // The handle opens nothing yet: the caller decides which representation to open
+        return documentAccessCache.readableDownload(documentId, firebaseUid,
+                id -> documentRepository.findById(id).map(DocumentService::toDownloadable));
+    }
+
+    private static DownloadableFile toDownloadable(Document document) {
+        ZonedDateTime lastModified = (document.getUploadTimeStamp() == null)
+                ? null : document.getUploadTimeStamp().atZone(ZoneId.systemDefault());
+        SeekIndex seekIndex = (document.getSeekIndex() == null) ? null : SeekIndex.decode(document.getSeekIndex());
+        return new DownloadableFile(document.getFileName(), document.getContentType(),
+                document.getGcsPath(), document.getCodec(), document.getOriginalSize(), document.getCompressedSize(),
+                lastModified, seekIndex);
+    }
+
+    /**
+     * The stored bytes, unchanged (gzip unless the codec is {@link Codec#STORED}). Yields
+     * {@code compressedSize} bytes.
+     */
+    public InputStream openStoredContent(DownloadableFile file) throws IOException {
+        return blobStore.openRead(file.gcsPath());
     }
 
-    public Optional<DownloadableFile> downloadDocument(long documentId, String firebaseUid) throws IOException {
-        Optional<Document> documentOptional = documentRepository.findById(documentId);
+    /**
+     * The full decompressed content. Yields {@code originalSize} bytes.
+     */
+    public InputStream openContent(DownloadableFile file) throws IOException {
+        InputStream compressedStream = openStoredContent(file);
+        if (file.codec() == Codec.STORED) {
+            return compressedStream;
+        }
+        try {
+            return decompressGzip(compressedStream);
+        } catch (IOException | RuntimeException e) {
+            compressedStream.close();
+            throw e;
+        }
+    }
 
-        // 1. Check if document exists
-        if (documentOptional.isEmpty()) {
-            return Optional.empty();
+    /**
+     * {@code length} decompressed bytes starting at {@code start}. Stored blobs are range-read
+     * directly. For gzip with a seek index only the compressed blocks covering the range are read
+     * from the blob store and inflated; objects without one are inflated from the beginning and the
+     * prefix is discarded.
+     */
+    public InputStream openContentRange(DownloadableFile file, long start, long length) throws IOException {
+        if (file.codec() == Codec.STORED) {
+            return blobStore.openRange(file.gcsPath(), start, start + length);
+        }
+        SeekIndex seekIndex = file.seekIndex();
+        InputStream decompressedStream;
+        long skip;
+        if (seekIndex == null) {
+            decompressedStream = openContent(file);
+            skip = start;
+        } else {
+            int firstBlock = seekIndex.blockOf(start);
+            int lastBlock = seekIndex.blockOf(start + length - 1);
+            InputStream compressedStream = blobStore.openRange(file.gcsPath(),
+                    seekIndex.compressedOffset(firstBlock),
+                    seekIndex.compressedEnd(lastBlock, file.compressedSize()));
+            decompressedStream = new BlockInflaterInputStream(compressedStream, STREAM_BUFFER_SIZE);
+            skip = start - seekIndex.blockStart(firstBlock);
+        }
+        try {
+            ByteStreams.skipFully(decompressedStream, skip);
+        } catch (IOException | RuntimeException e) {
+            decompressedStream.close();
+            throw e;
         }
-        Document document = documentOptional.get();
+        return ByteStreams.limit(decompressedStream, length);
+    }
 
-        boolean isOwner = document.getOwner().getFirebaseUid().equals(firebaseUid);
-        boolean hasPermission = documentPermissionRepository.existsPermissionWithFirebaseUid(documentId, firebaseUid);
+    private InputStream decompressGzip(InputStream compressedStream) throws IOException {
+        // Reads the gzip header eagerly, so a missing or corrupt object fails before any response is sent
+        return metrics.decompress(compressedStream, STREAM_BUFFER_SIZE);
+    }
 
-        if (!isOwner && !hasPermission) {
-            return Optional.empty();
+    public static final int MAX_ARCHIVE_DOCUMENTS = 1000;
+
+    /**
+     * Authorizes every id with a single query and returns handles in request order, duplicates
+     * removed. If any id is missing or not visible to the user nothing is returned, so the request
+     * fails before a byte of the archive is sent.
+     */
+    @Transactional(readOnly = true)
+    public List<DownloadableFile> prepareArchive(Collection<Long> documentIds, String firebaseUid) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (documentIds != null) {
+            documentIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.isEmpty() || ids.size() > MAX_ARCHIVE_DOCUMENTS) {
+            throw new BadRequestException("Between 1 and %d documents per archive".formatted(MAX_ARCHIVE_DOCUMENTS));
         }
 
-        // 3. Download the compressed file from GCS
-        byte[] compressedBytes = gcsService.downloadFile(gcsBucketName, document.getGcsPath());
-        // 4. Decompress the file data
-        byte[] decompressedBytes = decompressGzip(compressedBytes);
-        // 5. Return the file data in our wrapper object
-        return Optional.of(new DownloadableFile(decompressedBytes, document.getFileName(), document.getContentType()));
+        Map<Long, Document> visible = new HashMap<>();
+        for (Document document : documentRepository.findVisibleTo(ids, firebaseUid)) {
+            visible.put(document.getId(), document);
+        }
+        if (visible.size() != ids.size()) {
+            // Same answer for "does not exist" and "not yours", as with single downloads
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            missing.removeAll(visible.keySet());
+            throw new NotFoundException("Documents not found: " + missing);
+        }
+        return ids.stream().map(id -> toDownloadable(visible.get(id))).toList();
     }
 
-    private byte[] decompressGzip(byte[] compressedData) throws IOException {
-        try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(compressedData);
-             GZIPInputStream gzipInputStream = new GZIPInputStream(byteArrayInputStream);
-             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
+    /**
+     * Streams the files as one ZIP, one entry at a time, through a fixed-size buffer. Gzip blobs
+     * already hold a deflate stream, so their compressed bytes are copied into the entry and the
+     * CRC comes from the gzip trailer; nothing is inflated. Stored blobs were judged incompressible
+     * at upload, so they are wrapped in deflate's uncompressed blocks rather than compressed again.
+     */
+    public void writeArchive(List<DownloadableFile> files, OutputStream out) throws IOException {
+        Set<String> usedNames = new HashSet<>();
+        try (ZipArchiveWriter zip = new ZipArchiveWriter(out)) {
+            for (DownloadableFile file : files) {
+                String name = archiveEntryName(file.fileName(), usedNames);
+                LocalDateTime modified = (file.lastModified() == null) ? null : file.lastModified().toLocalDateTime();
+                // A ranged read is never shared with concurrent downloads, so each entry streams
+                // straight from the disk cache or storage
+                try (InputStream stored = blobStore.openRange(file.gcsPath(), 0, file.compressedSize())) {
+                    if (file.codec() == Codec.STORED) {
+                        zip.putContent(name, modified, stored, file.originalSize(), Deflater.NO_COMPRESSION);
+                    } else {
+                        zip.putGzip(name, modified, stored, file.originalSize());
+                    }
+                }
+            }
+        }
+    }
 
-            gzipInputStream.transferTo(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
+    /**
+     * Flat, unique entry names: path separators are replaced so an entry can never land outside
+     * the extraction directory, and repeated names become "name (1).ext", "name (2).ext", ...
+     */
+    private static String archiveEntryName(String fileName, Set<String> usedNames) {
+        String base = (fileName == null || fileName.isBlank()) ? "document" : fileName.replaceAll("[/\\\\]", "_");
+        if (base.equals(".") || base.equals("..")) {
+            base = "document";
+        }
+        String name = base;
+        int dot = base.lastIndexOf('.');
+        String stem = (dot > 0) ? base.substring(0, dot) : base;
+        String extension = (dot > 0) ? base.substring(dot) : "";
+        for (int n = 1; !usedNames.add(name); n++) {
+            name = stem + " (" + n + ")" + extension;
         }
+        return name;
     }
 
     public Optional<Document> findDocumentById(long id) {
         return documentRepository.findById(id);
     }
 
+    @Transactional
     public void shareDocument(Long documentId, String requesterFirebaseUid, String recipientEmail) {
-        System.out.println("Documetn IDD ::::: " + documentId);
+        log.debug("Sharing document {}", documentId);
         // 1) Load the document or 404
         Document doc = documentRepository.findById(documentId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Document not found"));
+                .orElseThrow(() -> new NotFoundException("Document not found"));
 
-        // 2) Only the owner may share → 403
-//        User owner = doc.getOwner();
-//        if (owner == null || !requesterFirebaseUid.equals(owner.getFirebaseUid())) {
-//            throw new ResponseStatusException(
-//                    HttpStatus.FORBIDDEN, "Only the owner can share this document");
-//        }
+        // 2) Only the owner may share → 403. Sharing writes a visibility row, so without this check
+        //    anyone could grant themselves read access to any document
+        User owner = doc.getOwner();
+        if (owner == null || !requesterFirebaseUid.equals(owner.getFirebaseUid())) {
+            throw new ForbiddenException("Only the owner can share this document");
+        }
 
         // 3) Resolve recipient by email (must have signed in at least once) → 404
         User recipient = userRepository.findByEmail(recipientEmail)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
+                .orElseThrow(() -> new NotFoundException(
                         "User with email '%s' is not registered yet. Ask them to sign in once."
                                 .formatted(recipientEmail)));
 
         // 4) Disallow sharing to self → 400
         if (requesterFirebaseUid.equals(recipient.getFirebaseUid())) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST, "You cannot share a document with yourself");
+            throw new BadRequestException("You cannot share a document with yourself");
         }
 
-        // 5) Idempotency: if already shared, do nothing
-        boolean alreadyShared =
-                documentPermissionRepository.existsPermissionWithUserId(doc.getId(), recipient.getId());
-        if (alreadyShared) return;
+        // 5) Persist permission and the recipient's visibility row; already shared (or a concurrent
+        //    share winning the race) inserts nothing and is treated as success
+        int inserted = documentPermissionRepository.insertIfAbsent(doc.getId(), recipient.getId(), PermissionLevel.READER.name());
+        if (inserted == 0) return;
+        visibilityService.recordReader(doc, recipient);
 
-        // 6) Persist permission (race-safe against duplicates)
-        try {
-            DocumentPermission perm = new DocumentPermission();
-            perm.setDocument(doc);
-            perm.setSharedWithUser(recipient);
-            perm.setPermissionLevel(PermissionLevel.READER);
-            documentPermissionRepository.save(perm);
-        } catch (DataIntegrityViolationException ignored) {
-            // another request inserted the same row concurrently; treat as success
+        // A cached "no" for the recipient would otherwise outlive the share
+        documentAccessCache.invalidate(doc.getId(), recipient.getFirebaseUid());
+    }
+
+    public static final int MAX_BATCH_DOCUMENTS = 1000;
+    public static final int MAX_BATCH_RECIPIENTS = 100;
+
+    /**
+     * Shares every listed document with every listed recipient in a constant number of statements:
+     * one ownership check, one recipient lookup, and one set-based insert each for permissions and
+     * visibility. Pairs that are already shared are left alone.
+     */
+    @Transactional
+    public BatchShareResponseDTO shareDocuments(Collection<Long> documentIds, String requesterFirebaseUid,
+                                                Collection<String> recipientEmails) {
+        Set<Long> ids = (documentIds == null) ? Set.of() : new LinkedHashSet<>(documentIds);
+        Set<String> emails = new LinkedHashSet<>();
+        if (recipientEmails != null) {
+            for (String email : recipientEmails) {
+                if (email != null && !email.isBlank()) {
+                    emails.add(email.trim());
+                }
+            }
+        }
+        if (ids.isEmpty() || emails.isEmpty()) {
+            throw new BadRequestException("documentIds and emails must both be non-empty");
+        }
+        if (ids.size() > MAX_BATCH_DOCUMENTS || emails.size() > MAX_BATCH_RECIPIENTS) {
+            throw new BadRequestException("At most %d documents and %d recipients per batch"
+                    .formatted(MAX_BATCH_DOCUMENTS, MAX_BATCH_RECIPIENTS));
+        }
+
+        // Only the owner may share. Missing and foreign ids get the same answer, which names neither,
+        // so the endpoint cannot be used to probe which ids exist
+        List<Long> owned = documentRepository.findOwnedIds(ids, requesterFirebaseUid);
+        if (owned.size() != ids.size()) {
+            throw new NotFoundException("Documents not found");
         }
+
+        // Same rules as a single share: recipients must have signed in once, and never yourself
+        List<User> recipients = new ArrayList<>();
+        List<String> unknownEmails = new ArrayList<>(emails);
+        for (User user : userRepository.findByEmailIn(emails)) {
+            unknownEmails.remove(user.getEmail());
+            if (requesterFirebaseUid.equals(user.getFirebaseUid())) {
+                throw new BadRequestException("You cannot share a document with yourself");
+            }
+            recipients.add(user);
+        }
+        if (recipients.isEmpty()) {
+            return new BatchShareResponseDTO(ids.size(), List.of(), unknownEmails, 0);
+        }
+
+        List<Long> recipientIds = recipients.stream().map(User::getId).toList();
+        int created = documentPermissionRepository.insertAllIfAbsent(ids, recipientIds, PermissionLevel.READER.name());
+        visibilityService.recordReaders(ids, recipientIds);
+        documentAccessCache.invalidateAll(ids, recipients.stream().map(User::getFirebaseUid).toList());
+
+        return new BatchShareResponseDTO(ids.size(), recipients.stream().map(User::getEmail).toList(),
+                unknownEmails, created);
     }
 
     @Transactional
@@ -187,11 +663,15 @@ public class DocumentService {
         if (doc.getOwner() == null || !requesterUid.equals(doc.getOwner().getFirebaseUid())) {
             throw new ForbiddenException("Only the owner can delete this document");
         }
-        // optional: also delete from GCS
-        if (doc.getGcsPath() != null) {
-            gcsService.deleteFile(gcsBucketName, doc.getGcsPath());
+        // The stored object may be shared with other documents; only the last reference deletes it,
+        // and that happens in the background once this transaction has committed
+        if (doc.getGcsPath() != null && storedBlobService.release(doc.getGcsPath())) {
+            blobDeletionService.enqueue(doc.getGcsPath());
         }
+        visibilityService.removeDocument(doc.getId());
+        contentIndexService.removeDocument(doc.getId());
         documentRepository.delete(doc);
+        documentAccessCache.invalidateDocument(doc.getId());
     }
 
 }
@@ -0,0 +1,70 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.model.User;
+import com.devops.stratusvault.model.VisibilityRole;
+import com.devops.stratusvault.repository.DocumentVisibilityRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Maintains {@code user_document_visibility}. The write methods must run inside the transaction
+ * that changes the underlying document or permission, so both commit or roll back together.
+ * {@link #backfill} and {@link #rebuild} derive the table from documents and permissions; see
+ * {@link VisibilityStartupSync}.
+ */
+@Service
+public class DocumentVisibilityService {
+
+    private final DocumentVisibilityRepository visibilityRepository;
+
+    public DocumentVisibilityService(DocumentVisibilityRepository visibilityRepository) {
+        this.visibilityRepository = visibilityRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOwner(Document document, User owner) {
+        visibilityRepository.insertIfAbsent(owner.getId(), document.getId(), VisibilityRole.OWNER.name(),
+                document.getUploadTimeStamp());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReader(Document document, User reader) {
+        visibilityRepository.insertIfAbsent(reader.getId(), document.getId(), VisibilityRole.READER.name(),
+                document.getUploadTimeStamp());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReaders(Collection<Long> documentIds, Collection<Long> readerIds) {
+        visibilityRepository.insertAllIfAbsent(documentIds, readerIds, VisibilityRole.READER.name());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeDocument(long documentId) {
+        visibilityRepository.deleteByDocumentId(documentId);
+    }
+
+    /**
+     * Adds any missing rows. Idempotent, so it is safe to run against a live table.
+     */
+    @Transactional
+    public int backfill() {
+        return visibilityRepository.backfill();
+    }
+
+    /**
+     * Recreates the table from scratch in one transaction; readers see the old rows until commit.
+     */
+    @Transactional
+    public int rebuild() {
+        visibilityRepository.deleteAllRows();
+        return visibilityRepository.backfill();
+    }
+
+    public boolean isEmpty() {
+        return !visibilityRepository.hasAnyRows();
+    }
+}
@@ -0,0 +1,405 @@
+package com.devops.stratusvault.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-flight for full reads of remote objects: while one read of a key is in progress, further
+ * readers of the same key share its storage stream instead of opening their own, so a burst of N
+ * downloads of one object costs about one fetch. Used by {@link GcsService#openRead}, below the
+ * disk cache, so only real storage reads are coalesced; cache hits and ranged reads never are.
+ * <p>
+ * A reader on its own reads the storage stream straight into its caller's buffer; nothing is
+ * buffered. Once a second reader joins, whichever reader is furthest ahead pulls from the stream
+ * and keeps a copy of what it pulled in a window that the readers behind it consume, and the window
+ * is trimmed as the slowest reader advances. A joiner starts at the beginning of the window and
+ * range-reads the bytes before it on its own. Memory stays bounded: a flight's window never exceeds
+ * {@code window}, nor all windows together {@code maxBuffered}. A reader that falls that far behind
+ * is detached and continues with its own ranged read, so nobody is held back by a slow client.
+ * <p>
+ * Flights end at the end of the object or when their last reader closes (which closes the stream);
+ * a reader arriving after that starts a new one. Repeat reads of a finished object are the disk
+ * cache's job, not this class's.
+ */
+@Component
+public class DownloadCoalescer {
+
+    @FunctionalInterface
+    public interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RangeOpener {
+        /**
+         * Opens bytes {@code [start, endExclusive)}; {@code Long.MAX_VALUE} means "to the end".
+         */
+        InputStream open(long start, long endExclusive) throws IOException;
+    }
+
+    /**
+     * Cumulative counters since startup: storage {@code fetches} started by a flight, readers that
+     * {@code joined} an existing one, and readers {@code detached} for falling too far behind.
+     */
+    public record Stats(long fetches, long joined, long detached) {}
+
+    private final long window;
+    private final long maxBuffered;
+    private final long readTimeoutNanos;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong detached = new AtomicLong();
+
+    public DownloadCoalescer(@Value("${app.download.coalescing.window:4MB}") DataSize window,
+                             @Value("${app.download.coalescing.max-buffered:256MB}") DataSize maxBuffered,
+                             @Value("${app.download.coalescing.read-timeout:30s}") Duration readTimeout) {
+        this.window = window.toBytes();
+        this.maxBuffered = maxBuffered.toBytes();
+        this.readTimeoutNanos = readTimeout.toNanos();
+    }
+
+    /**
+     * Opens a full read of {@code key}, sharing an in-flight read when there is one.
+     *
+     * @param opener      opens the full storage read; called only when a new flight starts
+     * @param rangeOpener opens part of the object: a joiner's prefix, or the rest for a detached reader
+     */
+    public InputStream open(String key, Opener opener, RangeOpener rangeOpener) throws IOException {
+        while (true) {
+            Flight existing = flights.get(key);
+            if (existing != null) {
+                Flight.Reader reader = existing.join(rangeOpener);
+                if (reader == null) {
+                    // Finished or abandoned; it removes itself, but don't wait for that
+                    flights.remove(key, existing);
+                    continue;
+                }
+                joined.incrementAndGet();
+                try {
+                    reader.openPrefix();
+                } catch (IOException | RuntimeException e) {
+                    reader.close();
+                    throw e;
+                }
+                return reader;
+            }
+            // Opening is lazy for GCS, so losing the race below costs no storage read
+            InputStream source = opener.open();
+            Flight flight = new Flight(key, source);
+            Flight.Reader reader = flight.join(rangeOpener);
+            if (flights.putIfAbsent(key, flight) != null) {
+                source.close();
+                continue;
+            }
+            fetches.incrementAndGet();
+            return reader;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(fetches.get(), joined.get(), detached.get());
+    }
+
+    /**
+     * Bytes currently held in flight windows.
+     */
+    public long bufferedBytes() {
+        return buffered.get();
+    }
+
+    private final class Flight {
+        private final String key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition progress = lock.newCondition();
+
+        private final InputStream source;
+
+        // Guarded by lock. The window holds exactly the bytes [windowStart, fetched) of the object
+        private final List<Reader> readers = new ArrayList<>();
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+        private long windowStart;
+        private long windowBytes;
+        private long fetched;
+        private boolean pulling;
+        private boolean eof;
+        private IOException failure;
+        private boolean closed;
+
+        Flight(String key, InputStream source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        /**
+         * Adds a reader at the start of the window, or returns null if the flight can no longer be joined.
+         */
+        Reader join(RangeOpener rangeOpener) {
+            lock.lock();
+            try {
+                if (closed || eof || failure != null) {
+                    return null;
+                }
+                Reader reader = new Reader(rangeOpener, windowStart);
+                readers.add(reader);
+                return reader;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Called with the lock held, after {@code n} new bytes were pulled into {@code b}.
+         */
+        private void pulled(byte[] b, int off, int n) {
+            if (readers.size() > 1) {
+                chunks.addLast(Arrays.copyOfRange(b, off, off + n));
+                windowBytes += n;
+                buffered.addAndGet(n);
+            }
+            fetched += n;
+            trim();
+            // Over budget: cut loose the slowest readers until the window fits again
+            while (windowBytes > window || (windowBytes > 0 && buffered.get() > maxBuffered)) {
+                Reader slowest = readers.stream().min(Comparator.comparingLong(r -> r.position)).orElseThrow();
+                readers.remove(slowest);
+                slowest.detached = true;
+                detached.incrementAndGet();
+                trim();
+            }
+        }
+
+        /**
+         * Drops whole chunks no attached reader still needs. Called with the lock held.
+         */
+        private void trim() {
+            long needed = readers.stream().mapToLong(r -> r.position).min().orElse(fetched);
+            while (!chunks.isEmpty() && windowStart + chunks.peekFirst().length <= needed) {
+                int length = chunks.removeFirst().length;
+                windowStart += length;
+                windowBytes -= length;
+                buffered.addAndGet(-length);
+            }
+            if (chunks.isEmpty()) {
+                windowStart = fetched;
+            }
+        }
+
+        /**
+         * Copies window bytes from {@code position} into {@code b}. Called with the lock held.
+         */
+        private int copyFromWindow(long position, byte[] b, int off, int len) {
+            long chunkStart = windowStart;
+            for (byte[] chunk : chunks) {
+                if (position < chunkStart + chunk.length) {
+                    int from = (int) (position - chunkStart);
+                    int count = Math.min(len, chunk.length - from);
+                    System.arraycopy(chunk, from, b, off, count);
+                    return count;
+                }
+                chunkStart += chunk.length;
+            }
+            throw new IllegalStateException("Window of " + key + " does not cover position " + position);
+        }
+
+        private void leave(Reader reader) {
+            InputStream toClose = null;
+            lock.lock();
+            try {
+                readers.remove(reader);
+                if (readers.isEmpty() && !closed) {
+                    closed = true;
+                    toClose = source;
+                }
+                trim();
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (toClose != null) {
+                flights.remove(key, this);
+                try {
+                    toClose.close();
+                } catch (IOException ignored) {
+                    // nobody is left to report it to
+                }
+            }
+        }
+
+        private final class Reader extends InputStream {
+            private final RangeOpener rangeOpener;
+            // Guarded by the flight's lock while attached; the next object offset this reader returns
+            private long position;
+            private boolean detached;
+            // Bytes [0, position) read on our own before reading the shared window
+            private InputStream prefix;
+            private long prefixRemaining;
+            // Our own read of the rest of the object once detached
+            private InputStream own;
+            private boolean readerClosed;
+
+            Reader(RangeOpener rangeOpener, long position) {
+                this.rangeOpener = rangeOpener;
+                this.position = position;
+            }
+
+            void openPrefix() throws IOException {
+                if (position > 0) {
+                    prefixRemaining = position;
+                    prefix = rangeOpener.open(0, position);
+                }
+            }
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return (read(single, 0, 1) == -1) ? -1 : (single[0] & 0xff);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (prefix != null) {
+                    int n = prefix.read(b, off, (int) Math.min(len, prefixRemaining));
+                    if (n == -1) {
+                        throw new EOFException("Stored object " + key + " ended inside the shared prefix");
+                    }
+                    prefixRemaining -= n;
+                    if (prefixRemaining == 0) {
+                        prefix.close();
+                        prefix = null;
+                    }
+                    return n;
+                }
+                if (own != null) {
+                    return own.read(b, off, len);
+                }
+                Integer shared = readShared(b, off, len);
+                if (shared != null) {
+                    return shared;
+                }
+                // Detached for lagging: carry on alone from where we are
+                own = rangeOpener.open(position, Long.MAX_VALUE);
+                return own.read(b, off, len);
+            }
+
+            /**
+             * Reads from the window, or pulls from storage when this reader is at the front.
+             * Returns null once this reader has been detached.
+             */
+            private Integer readShared(byte[] b, int off, int len) throws IOException {
+                lock.lock();
+                try {
+                    long remaining = readTimeoutNanos;
+                    while (true) {
+                        if (detached) {
+                            return null;
+                        }
+                        if (position < fetched) {
+                            int count = copyFromWindow(position, b, off, len);
+                            position += count;
+                            trim();
+                            return count;
+                        }
+                        if (failure != null) {
+                            throw new IOException("Shared download of " + key + " failed", failure);
+                        }
+                        if (eof) {
+                            return -1;
+                        }
+                        if (!pulling) {
+                            break;
+                        }
+                        if (remaining <= 0) {
+                            throw new IOException("Timed out waiting for shared download of " + key);
+                        }
+                        remaining = progress.awaitNanos(remaining);
+                    }
+                    pulling = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for shared download of " + key, e);
+                } finally {
+                    lock.unlock();
+                }
+                return pull(b, off, len);
+            }
+
+            /**
+             * Reads the next bytes from storage straight into {@code b}, outside the lock, and
+             * shares a copy with the readers behind.
+             */
+            private int pull(byte[] b, int off, int len) throws IOException {
+                int n = 0;
+                IOException error = null;
+                try {
+                    n = source.read(b, off, len);
+                } catch (IOException e) {
+                    error = e;
+                } catch (RuntimeException e) {
+                    error = new IOException(e);
+                }
+                lock.lock();
+                try {
+                    pulling = false;
+                    if (error != null) {
+                        failure = error;
+                    } else if (n == -1) {
+                        eof = true;
+                    } else {
+                        position += n;
+                        pulled(b, off, n);
+                    }
+                    progress.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (error != null || n == -1) {
+                    // Late readers start a fresh flight; attached ones drain the window
+                    flights.remove(key, Flight.this);
+                }
+                if (error != null) {
+                    throw error;
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (readerClosed) {
+                    return;
+                }
+                readerClosed = true;
+                try {
+                    if (prefix != null) {
+                        prefix.close();
+                    }
+                    if (own != null) {
+                        own.close();
+                    }
+                } finally {
+                    leave(this);
+                }
+            }
+        }
+    }
+}
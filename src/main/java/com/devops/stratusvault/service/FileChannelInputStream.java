@@ -0,0 +1,85 @@
+package com.devops.stratusvault.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads {@code [position, end)} of a file channel with positioned reads. {@link #transferTo} hands
+ * the remainder straight to {@link FileChannel#transferTo}, which is zero-copy when the target is a
+ * file or socket channel and otherwise moves data through an off-heap buffer rather than the Java
+ * heap. Closing the stream closes the channel.
+ */
+final class FileChannelInputStream extends InputStream {
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    FileChannelInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    static void transferFully(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long transferred = source.transferTo(position, count, target);
+            if (transferred <= 0) {
+                throw new IOException("Blob shorter than expected");
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return (read(single, 0, 1) == -1) ? -1 : (single[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, end - position);
+        int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        long count = end - position;
+        transferFully(channel, position, count, Channels.newChannel(out));
+        position = end;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
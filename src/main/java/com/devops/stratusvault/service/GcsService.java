@@ -1,33 +1,158 @@
 package com.devops.stratusvault.service;
 
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.StorageOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link BlobStore} backed by a Google Cloud Storage bucket. Every network call goes through the
+ * {@link StorageBulkhead} and is timed by {@link StorageMetrics}. Concurrent full reads of one
+ * object share a single GCS read through the {@link DownloadCoalescer}.
+ */
 @Service
-public class GcsService {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "gcs", matchIfMissing = true)
+public class GcsService implements BlobStore {
+
+    // Resumable upload chunk size; must be a multiple of 256 KiB. This is the only
+    // buffer the client library keeps per upload, so it bounds heap use per request.
+    private static final int UPLOAD_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int DOWNLOAD_CHUNK_SIZE = 256 * 1024;
+
+    private static final int MAX_COMPOSE_SOURCES = 32;
+
+    // JSON API batch requests carry at most 100 calls
+    private static final int MAX_BATCH_DELETES = 100;
 
     private final Storage storage;
+    private final String bucketName;
+    private final StorageBulkhead bulkhead;
+    private final StorageMetrics metrics;
+    private final DownloadCoalescer downloadCoalescer;
+
+    public GcsService(Storage storage, @Value("${app.gcs.bucket-name}") String bucketName, StorageBulkhead bulkhead,
+                      StorageMetrics metrics, DownloadCoalescer downloadCoalescer) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.bulkhead = bulkhead;
+        this.metrics = metrics;
+        this.downloadCoalescer = downloadCoalescer;
+    }
+
+    /**
+     * Opens a streaming upload to the given object. The object is finalized in GCS when
+     * the returned stream is closed.
+     */
+    @Override
+    public OutputStream openWrite(String key, String contentType) {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key)).setContentType(contentType).build();
+        WriteChannel writer = storage.writer(blobInfo);
+        writer.setChunkSize(UPLOAD_CHUNK_SIZE);
+        return Channels.newOutputStream(bulkhead.guard(metrics.timed(writer, "put")));
+    }
+
+    @Override
+    public void write(String key, byte[] bytes, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key)).setContentType(contentType).build();
+        bulkhead.call(StorageBulkhead.Kind.WRITE, () -> metrics.time("put", () -> storage.create(blobInfo, bytes)));
+        metrics.countWritten(bytes.length);
+    }
+
+    /**
+     * Opens a streaming read of the given object. Bytes are fetched from GCS in chunks of
+     * {@code DOWNLOAD_CHUNK_SIZE} as the caller consumes the stream; a read of the same object
+     * already in progress is shared instead of starting another.
+     */
+    @Override
+    public InputStream openRead(String key) throws IOException {
+        return downloadCoalescer.open(key, () -> {
+            ReadChannel reader = storage.reader(BlobId.of(bucketName, key));
+            reader.setChunkSize(DOWNLOAD_CHUNK_SIZE);
+            return Channels.newInputStream(bulkhead.guard(metrics.timed(reader, "get")));
+        }, (start, endExclusive) -> openRange(key, start, endExclusive));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long endExclusive) throws IOException {
+        ReadChannel reader = storage.reader(BlobId.of(bucketName, key));
+        reader.setChunkSize(DOWNLOAD_CHUNK_SIZE);
+        reader.seek(start);
+        reader.limit(endExclusive);
+        return Channels.newInputStream(bulkhead.guard(metrics.timed(reader, "get_range")));
+    }
 
-    public GcsService() {
-        this.storage = StorageOptions.getDefaultInstance().getService();
+    /**
+     * GCS composes at most {@code MAX_COMPOSE_SOURCES} objects per request, so longer lists are
+     * composed in rounds through intermediate objects that are deleted afterwards.
+     */
+    @Override
+    public void compose(List<String> sourceKeys, String targetKey, String contentType) throws IOException {
+        List<String> sources = sourceKeys;
+        List<String> intermediates = new ArrayList<>();
+        int round = 0;
+        while (sources.size() > MAX_COMPOSE_SOURCES) {
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i += MAX_COMPOSE_SOURCES) {
+                String intermediate = targetKey + ".compose-" + round + "-" + next.size();
+                composeOnce(sources.subList(i, Math.min(i + MAX_COMPOSE_SOURCES, sources.size())), intermediate, contentType);
+                next.add(intermediate);
+            }
+            intermediates.addAll(next);
+            sources = next;
+            round++;
+        }
+        composeOnce(sources, targetKey, contentType);
+        for (String intermediate : intermediates) {
+            delete(intermediate);
+        }
     }
 
-    public void uploadFile(byte[] fileBytes, String bucketName, String destinationObjectName, String contentType) {
-        BlobId blobId = BlobId.of(bucketName, destinationObjectName);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(contentType).build();
-        storage.create(blobInfo, fileBytes);
+    private void composeOnce(List<String> sourceKeys, String targetKey, String contentType) throws IOException {
+        BlobInfo target = BlobInfo.newBuilder(BlobId.of(bucketName, targetKey)).setContentType(contentType).build();
+        bulkhead.call(StorageBulkhead.Kind.WRITE, () -> metrics.time("compose", () -> storage.compose(
+                Storage.ComposeRequest.newBuilder()
+                        .addSource(sourceKeys)
+                        .setTarget(target)
+                        .build())));
     }
 
-    public byte[] downloadFile(String bucketName, String objectName) {
-        BlobId blobId = BlobId.of(bucketName, objectName);
-        return storage.readAllBytes(BlobId.of(bucketName, objectName));
+    @Override
+    public boolean delete(String key) {
+        try {
+            return bulkhead.call(StorageBulkhead.Kind.WRITE,
+                    () -> metrics.time("delete", () -> storage.delete(BlobId.of(bucketName, key))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    public boolean deleteFile(String bucketName, String objectName) {
-        return storage.delete(com.google.cloud.storage.BlobId.of(bucketName, objectName));
+    /**
+     * One batch request per {@code MAX_BATCH_DELETES} keys instead of one request per key.
+     */
+    @Override
+    public List<Boolean> deleteAll(List<String> keys) throws IOException {
+        List<Boolean> results = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i += MAX_BATCH_DELETES) {
+            List<BlobId> batch = keys.subList(i, Math.min(i + MAX_BATCH_DELETES, keys.size())).stream()
+                    .map(key -> BlobId.of(bucketName, key))
+                    .toList();
+            results.addAll(bulkhead.call(StorageBulkhead.Kind.WRITE,
+                    () -> metrics.time("delete_batch", () -> storage.delete(batch))));
+        }
+        return results;
     }
 
 }
@@ -0,0 +1,143 @@
+package com.devops.stratusvault.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link BlobStore} on the local filesystem, for on-prem nodes with local SSDs and for running the
+ * whole app without network access. Enabled with {@code app.storage.backend=local}; blobs live under
+ * {@code app.storage.local.root}.
+ * <p>
+ * Writes go to a temp file that is atomically moved into place on close, so readers never see a
+ * partial blob. Reads go through {@link FileChannelInputStream}, which hands whole-stream copies to
+ * {@link FileChannel#transferTo}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${app.storage.local.root}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public OutputStream openWrite(String key, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        return new PublishOnCloseOutputStream(Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW), temp, target);
+    }
+
+    @Override
+    public void write(String key, byte[] bytes, String contentType) throws IOException {
+        try (OutputStream out = openWrite(key, contentType)) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public InputStream openRead(String key) throws IOException {
+        FileChannel channel = openChannel(key);
+        return new FileChannelInputStream(channel, 0, channel.size());
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long endExclusive) throws IOException {
+        FileChannel channel = openChannel(key);
+        return new FileChannelInputStream(channel, start, Math.min(endExclusive, channel.size()));
+    }
+
+    @Override
+    public void compose(List<String> sourceKeys, String targetKey, String contentType) throws IOException {
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (String sourceKey : sourceKeys) {
+                try (FileChannel in = openChannel(sourceKey)) {
+                    FileChannelInputStream.transferFully(in, 0, in.size(), out);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            return Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileChannel openChannel(String key) throws IOException {
+        try {
+            return FileChannel.open(resolve(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new NoSuchFileException(key, null, "Blob not found");
+        }
+    }
+
+    /**
+     * Maps a key to a path under the root, refusing anything that would escape it.
+     */
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return path;
+    }
+
+    private static final class PublishOnCloseOutputStream extends FilterOutputStream {
+        private final Path temp;
+        private final Path target;
+        private boolean closed;
+
+        PublishOnCloseOutputStream(OutputStream out, Path temp, Path target) {
+            super(out);
+            this.temp = temp;
+            this.target = target;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                out.close();
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+    }
+}
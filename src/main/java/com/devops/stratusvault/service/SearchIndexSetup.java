@@ -0,0 +1,68 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Prepares metadata search at startup: enables pg_trgm, creates the trigram index on
+ * {@code documents.search_text}, and fills the column on rows uploaded before it existed. Every
+ * step is idempotent; {@code app.search.startup-setup=false} skips them, e.g. where the schema is
+ * managed by a DBA.
+ */
+@Component
+public class SearchIndexSetup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexSetup.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public SearchIndexSetup(JdbcTemplate jdbcTemplate, DocumentRepository documentRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.search.startup-setup:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentRepository = documentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            // CONCURRENTLY keeps uploads flowing while the index builds on a large table; it cannot
+            // run inside a transaction, which JdbcTemplate does not open here
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_documents_search_text_trgm "
+                    + "ON documents USING gin (search_text gin_trgm_ops)");
+        } catch (DataAccessException e) {
+            log.error("Could not set up the search index; /api/documents/search will fail until pg_trgm is installed", e);
+            return;
+        }
+
+        // Short transactions, so the backfill never holds locks on a large share of the table
+        long total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> documentRepository.backfillSearchText(BACKFILL_BATCH_SIZE));
+            total += updated;
+        } while (updated == BACKFILL_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Backfilled documents.search_text: {} rows", total);
+        }
+    }
+}
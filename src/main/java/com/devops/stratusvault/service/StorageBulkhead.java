@@ -0,0 +1,128 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.exceptionhandler.errors.StorageBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many blocking calls to object storage are in flight, with separate limits for reads and
+ * writes. A caller that cannot get a permit within the queue timeout fails fast with
+ * {@link StorageBusyException} (503) instead of piling up behind a slow backend, so a storage
+ * latency spike degrades the storage endpoints and nothing else.
+ * <p>
+ * Streams hold a permit only for the duration of each underlying channel call, not for the life of
+ * the stream, so a slow client on the other end of a download does not occupy storage capacity.
+ */
+@Component
+public class StorageBulkhead {
+
+    public enum Kind { READ, WRITE }
+
+    @FunctionalInterface
+    public interface StorageCall<T> {
+        T call() throws IOException;
+    }
+
+    private final Semaphore reads;
+    private final Semaphore writes;
+    private final long queueTimeoutNanos;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public StorageBulkhead(@Value("${app.storage.bulkhead.max-reads:64}") int maxReads,
+                           @Value("${app.storage.bulkhead.max-writes:32}") int maxWrites,
+                           @Value("${app.storage.bulkhead.queue-timeout:2s}") Duration queueTimeout) {
+        this.reads = new Semaphore(maxReads, true);
+        this.writes = new Semaphore(maxWrites, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+    }
+
+    public <T> T call(Kind kind, StorageCall<T> call) throws IOException {
+        Semaphore permits = permits(kind);
+        acquire(permits, kind);
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public ReadableByteChannel guard(ReadableByteChannel channel) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                return call(Kind.READ, () -> channel.read(dst));
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    public WritableByteChannel guard(WritableByteChannel channel) {
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return call(Kind.WRITE, () -> channel.write(src));
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Closing finalizes the upload, which is a storage call of its own
+                call(Kind.WRITE, () -> {
+                    channel.close();
+                    return null;
+                });
+            }
+        };
+    }
+
+    public int available(Kind kind) {
+        return permits(kind).availablePermits();
+    }
+
+    public int waiting(Kind kind) {
+        return permits(kind).getQueueLength();
+    }
+
+    // Calls turned away with StorageBusyException since startup
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private Semaphore permits(Kind kind) {
+        return (kind == Kind.READ) ? reads : writes;
+    }
+
+    private void acquire(Semaphore permits, Kind kind) {
+        try {
+            if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.incrementAndGet();
+                throw new StorageBusyException("Storage is busy (" + kind.name().toLowerCase() + "s), please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageBusyException("Interrupted while waiting for storage");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.devops.stratusvault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and byte counters for object storage calls, recorded as {@code stratusvault.storage.requests}
+ * (tagged by operation and outcome) and {@code stratusvault.storage.bytes} (by direction).
+ * <p>
+ * Streamed reads and writes are made of many channel calls; for those the timer records the total
+ * time spent inside the channel over the life of the stream, once, when it is closed. Wrap channels
+ * inside the {@link StorageBulkhead} guard so time spent waiting for a permit is not counted.
+ */
+@Component
+public class StorageMetrics {
+
+    private static final String REQUESTS = "stratusvault.storage.requests";
+    private static final String BYTES = "stratusvault.storage.bytes";
+
+    private final MeterRegistry registry;
+    private final Counter bytesRead;
+    private final Counter bytesWritten;
+
+    public StorageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.bytesRead = Counter.builder(BYTES).baseUnit("bytes").tag("direction", "read")
+                .description("Bytes transferred to or from object storage").register(registry);
+        this.bytesWritten = Counter.builder(BYTES).baseUnit("bytes").tag("direction", "write")
+                .description("Bytes transferred to or from object storage").register(registry);
+    }
+
+    public <T> T time(String operation, StorageBulkhead.StorageCall<T> call) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            timer(operation, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void countWritten(long bytes) {
+        bytesWritten.increment(bytes);
+    }
+
+    public ReadableByteChannel timed(ReadableByteChannel channel, String operation) {
+        return new ReadableByteChannel() {
+            private long nanos;
+            private boolean failed;
+            private boolean recorded;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    int read = channel.read(dst);
+                    if (read > 0) {
+                        bytesRead.increment(read);
+                    }
+                    return read;
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    nanos += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    channel.close();
+                } finally {
+                    if (!recorded) {
+                        recorded = true;
+                        timer(operation, !failed).record(nanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+        };
+    }
+
+    public WritableByteChannel timed(WritableByteChannel channel, String operation) {
+        return new WritableByteChannel() {
+            private long nanos;
+            private boolean failed;
+            private boolean recorded;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    int written = channel.write(src);
+                    bytesWritten.increment(written);
+                    return written;
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    nanos += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Closing finalizes the upload, so it belongs to the put
+                long start = System.nanoTime();
+                try {
+                    channel.close();
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    nanos += System.nanoTime() - start;
+                    if (!recorded) {
+                        recorded = true;
+                        timer(operation, !failed).record(nanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+        };
+    }
+
+    private Timer timer(String operation, boolean success) {
+        // Builders are cheap and the registry returns the existing meter for known tags
+        return Timer.builder(REQUESTS)
+                .description("Time spent in object storage calls")
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(registry);
+    }
+}
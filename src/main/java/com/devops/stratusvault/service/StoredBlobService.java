@@ -0,0 +1,153 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.compression.SeekIndex;
+import com.devops.stratusvault.model.StoredBlob;
+import com.devops.stratusvault.repository.StoredBlobRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reference counting for content-addressed blobs.
+ * <p>
+ * Content keys are hex SHA-256. Single-shot uploads hash the file content directly; chunked uploads
+ * hash a chain of per-chunk digests seeded with the chunk size (see {@link #chunkedHashSeed}), so
+ * the two schemes never collide but also don't deduplicate against each other.
+ * <p>
+ * Storage paths stay unique per physical write, so a failed or losing upload only ever deletes its
+ * own object, never one that other documents already point at.
+ * <p>
+ * Single-shot uploads take their reference before the Document row is saved, in a separate
+ * transaction; a crash in between leaves a reference nothing holds. {@link BlobReferenceReconciler}
+ * corrects those counts once the blob has gone unreferenced for a while.
+ */
+@Service
+public class StoredBlobService {
+
+    /**
+     * Outcome of {@link #reconcile}: nothing to do (or a reference was taken meanwhile), the count
+     * was lowered, or it reached zero and the object was queued for deletion.
+     */
+    public enum Reconciliation { UNCHANGED, CORRECTED, RELEASED }
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobDeletionService blobDeletionService;
+
+    public StoredBlobService(StoredBlobRepository storedBlobRepository, BlobDeletionService blobDeletionService) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobDeletionService = blobDeletionService;
+    }
+
+    /**
+     * Takes a reference on an existing blob with this content, if there is one. The caller can then
+     * skip compression and the storage write entirely.
+     */
+    @Transactional
+    public Optional<StoredBlob> acquireExisting(String contentHash) {
+        if (storedBlobRepository.incrementReferences(contentHash, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return storedBlobRepository.findByContentHash(contentHash);
+    }
+
+    /**
+     * Registers a freshly written object and takes a reference on it. If a concurrent upload of the
+     * same content registered first, the returned blob points at that object instead, and the
+     * caller should delete the one it wrote.
+     */
+    @Transactional
+    public StoredBlob registerNew(String contentHash, String storagePath, Codec codec, long originalSize,
+                                  long compressedSize, SeekIndex seekIndex) {
+        storedBlobRepository.insertOrIncrement(contentHash, storagePath, codec.name(), originalSize, compressedSize,
+                LocalDateTime.now());
+        if (seekIndex != null) {
+            storedBlobRepository.setSeekIndexIfMissing(contentHash, seekIndex.encode());
+        }
+        return storedBlobRepository.findByContentHash(contentHash)
+                .orElseThrow(() -> new IllegalStateException("Blob row vanished after registration"));
+    }
+
+    /**
+     * Drops one reference to the object at {@code storagePath}.
+     *
+     * @return true when the object itself should now be deleted from the blob store. Objects
+     * uploaded before deduplication have no blob row and belong to a single document, so they are
+     * always deleted.
+     */
+    @Transactional
+    public boolean release(String storagePath) {
+        if (storedBlobRepository.decrementReferences(storagePath) == 0) {
+            return true;
+        }
+        return storedBlobRepository.deleteUnreferenced(storagePath) > 0;
+    }
+
+    /**
+     * Paths of up to {@code limit} blobs whose count exceeds the documents pointing at them and that
+     * have not been referenced since {@code cutoff}.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findOverReferenced(LocalDateTime cutoff, int limit) {
+        return storedBlobRepository.findOverReferenced(cutoff, limit);
+    }
+
+    /**
+     * Lowers the blob's count to the number of documents pointing at it, unless a reference was
+     * taken since {@code cutoff}. A blob left with none is removed and its object queued for deletion
+     * in the same transaction.
+     */
+    @Transactional
+    public Reconciliation reconcile(String storagePath, LocalDateTime cutoff) {
+        if (storedBlobRepository.resetReferences(storagePath, cutoff) == 0) {
+            return Reconciliation.UNCHANGED;
+        }
+        if (storedBlobRepository.deleteUnreferenced(storagePath) == 0) {
+            return Reconciliation.CORRECTED;
+        }
+        blobDeletionService.enqueue(storagePath);
+        return Reconciliation.RELEASED;
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String sha256Hex(InputStream in, int bufferSize) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Initial chain state for a chunked upload. Each chunk then advances it with
+     * {@link #chainChunkHash}.
+     */
+    public static byte[] chunkedHashSeed(int chunkSize) {
+        return newSha256().digest(("stratusvault-chunked:" + chunkSize).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static byte[] chainChunkHash(byte[] state, byte[] chunkDigest) {
+        MessageDigest digest = newSha256();
+        digest.update(state);
+        digest.update(chunkDigest);
+        return digest.digest();
+    }
+}
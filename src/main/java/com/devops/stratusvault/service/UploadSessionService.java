@@ -0,0 +1,386 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.compression.CodecSelector;
+import com.devops.stratusvault.compression.DeflateSegmentOutputStream;
+import com.devops.stratusvault.compression.GzipSegments;
+import com.devops.stratusvault.compression.SeekIndex;
+import com.devops.stratusvault.compression.SeekableGzipOutputStream;
+import com.devops.stratusvault.dto.UploadSessionRequestDTO;
+import com.devops.stratusvault.dto.UploadSessionResponseDTO;
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+import com.devops.stratusvault.exceptionhandler.errors.ConflictException;
+import com.devops.stratusvault.exceptionhandler.errors.NotFoundException;
+import com.devops.stratusvault.model.Document;
+import com.devops.stratusvault.model.StoredBlob;
+import com.devops.stratusvault.model.UploadSession;
+import com.devops.stratusvault.repository.UploadSessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Resumable chunked uploads.
+ * <p>
+ * Every chunk is deflated on arrival into its own part object as a {@link DeflateSegmentOutputStream}
+ * segment (or copied as-is when the codec picked from chunk 0 is {@link Codec#STORED}), and the session
+ * row only advances once the part is safely stored, so a client can always resume from
+ * {@code nextChunk}. Finalize composes {@code header + parts + trailer} into one ordinary gzip object (with the same seek index a single-shot upload gets) and only then creates the
+ * {@link Document}. A chained SHA-256 of the chunks makes the finished content deduplicable via
+ * {@link StoredBlobService}. Memory per request is a fixed copy buffer plus the deflater, whatever the file size.
+ */
+@Service
+public class UploadSessionService {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    public static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final int BLOCK_SIZE = SeekableGzipOutputStream.DEFAULT_BLOCK_SIZE;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final String PART_CONTENT_TYPE = "application/octet-stream";
+    private static final int PART_ID_BYTES = 2 * Long.BYTES;
+    private static final UUID LEGACY_PART_ID = new UUID(0, 0);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final DocumentService documentService;
+    private final BlobStore blobStore;
+    private final StoredBlobService storedBlobService;
+    private final BlobDeletionService blobDeletionService;
+    private final TransactionTemplate transactionTemplate;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository, DocumentService documentService, BlobStore blobStore, StoredBlobService storedBlobService, BlobDeletionService blobDeletionService, TransactionTemplate transactionTemplate) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.documentService = documentService;
+        this.blobStore = blobStore;
+        this.storedBlobService = storedBlobService;
+        this.blobDeletionService = blobDeletionService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public UploadSessionResponseDTO startSession(UploadSessionRequestDTO request, String firebaseUid, String email) {
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new BadRequestException("fileName is required");
+        }
+        int chunkSize = (request.getChunkSize() == null) ? DEFAULT_CHUNK_SIZE : request.getChunkSize();
+        // Chunks must line up with seek-index blocks so per-chunk offsets can simply be concatenated
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || chunkSize % BLOCK_SIZE != 0) {
+            throw new BadRequestException("chunkSize must be a multiple of %d bytes and at most %d bytes"
+                    .formatted(BLOCK_SIZE, MAX_CHUNK_SIZE));
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwner(documentService.findOrCreateUser(firebaseUid, email));
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setChunkSize(chunkSize);
+        session.setBlockOffsets(new byte[0]);
+        session.setHashState(StoredBlobService.chunkedHashSeed(chunkSize));
+        session.setCreatedAt(LocalDateTime.now());
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    public UploadSessionResponseDTO getSession(String uploadId, String firebaseUid) {
+        return toResponse(loadOwnedSession(uploadId, firebaseUid));
+    }
+
+    /**
+     * Compresses one chunk into its part object and acknowledges it. Re-sending an already
+     * acknowledged chunk is a no-op, so clients can retry blindly after a lost response.
+     * <p>
+     * Every attempt writes to a fresh part name, recorded on the session only when the chunk is
+     * acknowledged: a retry or a concurrent duplicate can neither overwrite the acknowledged part nor,
+     * when it fails, delete it.
+     */
+    public UploadSessionResponseDTO appendChunk(String uploadId, int chunkIndex, InputStream body, String firebaseUid) throws IOException {
+        UploadSession session = loadOwnedSession(uploadId, firebaseUid);
+        if (chunkIndex < session.getReceivedChunks()) {
+            return toResponse(session);
+        }
+        if (session.isFinalChunkReceived()) {
+            throw new ConflictException("The final (short) chunk has already been received");
+        }
+        if (chunkIndex != session.getReceivedChunks()) {
+            throw new ConflictException("Expected chunk " + session.getReceivedChunks() + " but got " + chunkIndex);
+        }
+
+        // The codec is chosen once, from a sample at the start of chunk 0
+        InputStream source = body;
+        if (chunkIndex == 0 && session.getCodec() == null) {
+            byte[] sample = body.readNBytes(CodecSelector.SAMPLE_SIZE);
+            CodecSelector.Choice choice = CodecSelector.choose(session.getContentType(), sample, sample.length);
+            session.setCodec(choice.codec());
+            session.setCompressionLevel(choice.level());
+            source = new SequenceInputStream(new ByteArrayInputStream(sample), body);
+        }
+
+        UUID attemptId = UUID.randomUUID();
+        String partName = partObjectName(uploadId, chunkIndex, attemptId);
+        MessageDigest chunkDigest = StoredBlobService.newSha256();
+        long chunkLength;
+        long partLength;
+        long chunkCrc;
+        long[] partBlockOffsets;
+        try {
+            if (Codec.orDefault(session.getCodec()) == Codec.STORED) {
+                try (OutputStream part = blobStore.openWrite(partName, PART_CONTENT_TYPE)) {
+                    chunkLength = copyChunk(source, part, session.getChunkSize(), chunkDigest);
+                }
+                partLength = chunkLength;
+                chunkCrc = 0;
+                partBlockOffsets = new long[0];
+            } else {
+                try (DeflateSegmentOutputStream segment = new DeflateSegmentOutputStream(
+                        blobStore.openWrite(partName, PART_CONTENT_TYPE), STREAM_BUFFER_SIZE, BLOCK_SIZE,
+                        compressionLevel(session))) {
+                    chunkLength = copyChunk(source, segment, session.getChunkSize(), chunkDigest);
+                    segment.finish();
+                    partLength = segment.getCompressedSize();
+                    chunkCrc = segment.getCrc32();
+                    partBlockOffsets = segment.getBlockOffsets();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Only ever this attempt's own object; the acknowledged part (if any) has another name
+            discardQuietly(partName);
+            throw e;
+        }
+
+        // Rebase the segment's block offsets onto the assembled object: header + earlier segments
+        long segmentBase = GzipSegments.headerLength() + session.getCompressedSize();
+        session.setBlockOffsets(appendOffsets(session.getBlockOffsets(), segmentBase, partBlockOffsets));
+        session.setHashState(StoredBlobService.chainChunkHash(session.getHashState(), chunkDigest.digest()));
+        session.setCrc32(GzipSegments.combineCrc32(session.getCrc32(), chunkCrc, chunkLength));
+        session.setOriginalSize(session.getOriginalSize() + chunkLength);
+        session.setCompressedSize(session.getCompressedSize() + partLength);
+        session.setPartIds(recordPartId(session.getPartIds(), chunkIndex, attemptId));
+        session.setReceivedChunks(chunkIndex + 1);
+        // Only the last chunk may be shorter than chunkSize
+        session.setFinalChunkReceived(chunkLength < session.getChunkSize());
+        // If a concurrent duplicate of this chunk was acknowledged first, the version check fails here.
+        // Our part is then unreferenced, and left to the uploads/ sweep: a failed save is not proof
+        // that the row was not written.
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    private static int compressionLevel(UploadSession session) {
+        // Sessions started before codec selection existed carry no level
+        return (session.getCompressionLevel() == null) ? Deflater.DEFAULT_COMPRESSION : session.getCompressionLevel();
+    }
+
+    private static long copyChunk(InputStream source, OutputStream target, int chunkSize, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long copied = 0;
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            if (copied + read > chunkSize) {
+                throw new BadRequestException("Chunk is larger than the session chunk size of " + chunkSize);
+            }
+            target.write(buffer, 0, read);
+            digest.update(buffer, 0, read);
+            copied += read;
+        }
+        return copied;
+    }
+
+    /**
+     * Assembles the parts into the final object, creates the Document and ends the session.
+     * <p>
+     * Assembly runs outside any transaction, like a single-shot upload, so no connection is held
+     * across storage calls. The session row is then deleted and the Document saved in one short
+     * transaction, which fails if the session changed or was completed concurrently; only then are
+     * the parts queued for deletion through the outbox. If that transaction fails, the session and
+     * its parts are untouched and the reference taken on the assembled blob is released again.
+     */
+    public Document completeSession(String uploadId, String firebaseUid) throws IOException {
+        UploadSession session = loadOwnedSession(uploadId, firebaseUid);
+        if (session.getReceivedChunks() == 0) {
+            throw new BadRequestException("No chunks have been uploaded");
+        }
+
+        List<String> parts = partNames(session);
+        StoredBlob blob = assemble(session, parts);
+        try {
+            return transactionTemplate.execute(status -> {
+                UploadSession current = uploadSessionRepository.findById(uploadId)
+                        .filter(row -> row.getVersion() == session.getVersion())
+                        .orElseThrow(() -> new ConflictException("Upload session was changed or completed concurrently"));
+                // Deleting by version also catches a concurrent complete that commits after our read
+                uploadSessionRepository.delete(current);
+                Document saved = documentService.saveNewDocument(session.getFileName(), session.getContentType(),
+                        blob, session.getOwner());
+                parts.forEach(blobDeletionService::enqueue);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            documentService.releaseQuietly(blob);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a reference on a blob with the session's content: an existing one when the same content
+     * (with the same chunk size) is already stored, otherwise one composed from the parts.
+     */
+    private StoredBlob assemble(UploadSession session, List<String> parts) throws IOException {
+        String contentHash = HexFormat.of().formatHex(session.getHashState());
+        Optional<StoredBlob> existing = storedBlobService.acquireExisting(contentHash);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Codec codec = Codec.orDefault(session.getCodec());
+        List<String> sources = new ArrayList<>(parts.size() + 2);
+        List<String> wrappers = new ArrayList<>(2);
+        long compressedSize = session.getCompressedSize();
+        SeekIndex seekIndex = null;
+        if (codec == Codec.GZIP) {
+            // Per attempt, so a concurrent complete of the same session cannot delete ours mid-compose
+            UUID attemptId = UUID.randomUUID();
+            String headerName = uploadPrefix(session.getId()) + "header-" + attemptId;
+            String trailerName = uploadPrefix(session.getId()) + "trailer-" + attemptId;
+            blobStore.write(headerName, GzipSegments.header(), PART_CONTENT_TYPE);
+            blobStore.write(trailerName, GzipSegments.trailer(session.getCrc32(), session.getOriginalSize()), PART_CONTENT_TYPE);
+            wrappers.add(headerName);
+            wrappers.add(trailerName);
+            sources.add(headerName);
+            sources.addAll(parts);
+            sources.add(trailerName);
+            compressedSize += GzipSegments.headerLength() + GzipSegments.trailerLength();
+            long[] offsets = decodeOffsets(session.getBlockOffsets());
+            seekIndex = (offsets.length == 0) ? null : new SeekIndex(BLOCK_SIZE, offsets);
+        } else {
+            sources.addAll(parts);
+        }
+
+        String gcsObjectName = UUID.randomUUID().toString() + codec.keySuffix();
+        try {
+            blobStore.compose(sources, gcsObjectName, session.getContentType());
+        } finally {
+            // Header and trailer are written afresh by a retry; the parts stay until the session ends
+            wrappers.forEach(this::discardQuietly);
+        }
+
+        StoredBlob blob;
+        try {
+            blob = storedBlobService.registerNew(contentHash, gcsObjectName, codec, session.getOriginalSize(),
+                    compressedSize, seekIndex);
+        } catch (RuntimeException e) {
+            discardQuietly(gcsObjectName);
+            throw e;
+        }
+        if (!blob.getStoragePath().equals(gcsObjectName)) {
+            // A concurrent upload of the same content registered first; ours is redundant
+            discardQuietly(gcsObjectName);
+        }
+        return blob;
+    }
+
+    /**
+     * Ends the session; its parts are deleted in the background once the row is gone.
+     */
+    @Transactional
+    public void abortSession(String uploadId, String firebaseUid) {
+        UploadSession session = loadOwnedSession(uploadId, firebaseUid);
+        uploadSessionRepository.delete(session);
+        partNames(session).forEach(blobDeletionService::enqueue);
+    }
+
+    private UploadSession loadOwnedSession(String uploadId, String firebaseUid) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new NotFoundException("Upload session not found"));
+        // Same answer as "missing" so session ids can't be probed
+        if (!firebaseUid.equals(session.getOwner().getFirebaseUid())) {
+            throw new NotFoundException("Upload session not found");
+        }
+        return session;
+    }
+
+    private static String uploadPrefix(String uploadId) {
+        return "uploads/" + uploadId + "/";
+    }
+
+    private static String partObjectName(String uploadId, int chunkIndex, UUID attemptId) {
+        return uploadPrefix(uploadId) + "part-%06d-%s".formatted(chunkIndex, attemptId);
+    }
+
+    // Sessions started before per-attempt names have no (or zeroed) ids for their earlier chunks
+    private static String legacyPartObjectName(String uploadId, int chunkIndex) {
+        return uploadPrefix(uploadId) + "part-%06d".formatted(chunkIndex);
+    }
+
+    /**
+     * Object names of the acknowledged parts, in chunk order.
+     */
+    private static List<String> partNames(UploadSession session) {
+        byte[] partIds = (session.getPartIds() == null) ? new byte[0] : session.getPartIds();
+        ByteBuffer buffer = ByteBuffer.wrap(partIds);
+        List<String> names = new ArrayList<>(session.getReceivedChunks());
+        for (int i = 0; i < session.getReceivedChunks(); i++) {
+            UUID attemptId = (buffer.remaining() >= PART_ID_BYTES)
+                    ? new UUID(buffer.getLong(), buffer.getLong())
+                    : LEGACY_PART_ID;
+            names.add(attemptId.equals(LEGACY_PART_ID)
+                    ? legacyPartObjectName(session.getId(), i)
+                    : partObjectName(session.getId(), i, attemptId));
+        }
+        return names;
+    }
+
+    private static byte[] recordPartId(byte[] existing, int chunkIndex, UUID attemptId) {
+        byte[] current = (existing == null) ? new byte[0] : existing;
+        // Any gap left by a pre-existing session stays zeroed, i.e. legacy-named
+        ByteBuffer buffer = ByteBuffer.allocate((chunkIndex + 1) * PART_ID_BYTES);
+        buffer.put(current, 0, Math.min(current.length, chunkIndex * PART_ID_BYTES));
+        buffer.position(chunkIndex * PART_ID_BYTES);
+        buffer.putLong(attemptId.getMostSignificantBits());
+        buffer.putLong(attemptId.getLeastSignificantBits());
+        return buffer.array();
+    }
+
+    private void discardQuietly(String objectName) {
+        try {
+            blobStore.delete(objectName);
+        } catch (RuntimeException ignored) {
+            // leftovers under uploads/ are swept by the bucket lifecycle rule (GCS) or by hand (local)
+        }
+    }
+
+    private static byte[] appendOffsets(byte[] existing, long base, long[] relativeOffsets) {
+        ByteBuffer buffer = ByteBuffer.allocate(existing.length + Long.BYTES * relativeOffsets.length);
+        buffer.put(existing);
+        for (long offset : relativeOffsets) {
+            buffer.putLong(base + offset);
+        }
+        return buffer.array();
+    }
+
+    private static long[] decodeOffsets(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        long[] offsets = new long[encoded.length / Long.BYTES];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.getLong();
+        }
+        return offsets;
+    }
+
+    private static UploadSessionResponseDTO toResponse(UploadSession session) {
+        return new UploadSessionResponseDTO(session.getId(), session.getFileName(), session.getChunkSize(),
+                session.getReceivedChunks(), session.getOriginalSize(), session.isFinalChunkReceived());
+    }
+}
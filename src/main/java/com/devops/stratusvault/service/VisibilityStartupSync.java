@@ -0,0 +1,42 @@
+package com.devops.stratusvault.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings {@code user_document_visibility} in line with documents and permissions at startup:
+ * {@code backfill} (default) fills an empty table on first deploy, {@code rebuild} recreates it
+ * unconditionally, {@code none} skips the check.
+ */
+@Component
+public class VisibilityStartupSync implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VisibilityStartupSync.class);
+
+    private final DocumentVisibilityService visibilityService;
+    private final String mode;
+
+    public VisibilityStartupSync(DocumentVisibilityService visibilityService,
+                                 @Value("${app.visibility.startup-sync:backfill}") String mode) {
+        this.visibilityService = visibilityService;
+        this.mode = mode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (mode) {
+            case "rebuild" -> log.info("Rebuilt user_document_visibility: {} rows", visibilityService.rebuild());
+            case "backfill" -> {
+                if (visibilityService.isEmpty()) {
+                    log.info("Backfilled user_document_visibility: {} rows", visibilityService.backfill());
+                }
+            }
+            case "none" -> { }
+            default -> throw new IllegalStateException("Unknown app.visibility.startup-sync: " + mode);
+        }
+    }
+}
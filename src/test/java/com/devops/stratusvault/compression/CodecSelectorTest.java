@@ -0,0 +1,74 @@
+package com.devops.stratusvault.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CodecSelectorTest {
+
+    private static final byte[] TEXT = "the quick brown fox jumps over the lazy dog\n".repeat(200)
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOISE = new byte[CodecSelector.SAMPLE_SIZE];
+
+    static {
+        new Random(11).nextBytes(NOISE);
+    }
+
+    @Test
+    void storesKnownCompressedTypesWithoutLookingAtContent() {
+        for (String type : new String[]{"image/jpeg", "application/zip", "video/mp4", "audio/mpeg",
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document"}) {
+            assertEquals(Codec.STORED, choose(type, TEXT).codec(), type);
+        }
+    }
+
+    @Test
+    void contentTypeParametersAndCaseAreIgnored() {
+        assertEquals(Codec.STORED, choose(" Image/PNG ; charset=binary", TEXT).codec());
+        assertEquals(new CodecSelector.Choice(Codec.GZIP, Deflater.DEFAULT_COMPRESSION),
+                choose("Text/Plain; charset=UTF-8", TEXT));
+    }
+
+    @Test
+    void pcmAudioIsNotTreatedAsCompressed() {
+        assertEquals(new CodecSelector.Choice(Codec.GZIP, Deflater.BEST_SPEED), choose("audio/wav", TEXT));
+    }
+
+    @Test
+    void textGetsDefaultLevelAndOtherBinariesFastest() {
+        CodecSelector.Choice text = new CodecSelector.Choice(Codec.GZIP, Deflater.DEFAULT_COMPRESSION);
+        assertEquals(text, choose("application/json", TEXT));
+        assertEquals(text, choose("application/vnd.api+json", TEXT));
+        assertEquals(text, choose("image/svg+xml", TEXT));
+        assertEquals(new CodecSelector.Choice(Codec.GZIP, Deflater.BEST_SPEED), choose("application/octet-stream", TEXT));
+        assertEquals(new CodecSelector.Choice(Codec.GZIP, Deflater.BEST_SPEED), choose(null, TEXT));
+    }
+
+    @Test
+    void incompressibleSampleIsStoredWhateverTheType() {
+        assertEquals(Codec.STORED, choose("text/plain", NOISE).codec());
+        assertEquals(Codec.STORED, choose("application/octet-stream", NOISE).codec());
+    }
+
+    @Test
+    void onlyTheSampleLengthIsConsidered() {
+        byte[] buffer = new byte[CodecSelector.SAMPLE_SIZE];
+        System.arraycopy(TEXT, 0, buffer, 0, TEXT.length);
+        System.arraycopy(NOISE, 0, buffer, TEXT.length, buffer.length - TEXT.length);
+        assertEquals(Codec.GZIP, CodecSelector.choose("text/plain", buffer, TEXT.length).codec());
+    }
+
+    @Test
+    void emptyFileFallsBackToTheType() {
+        assertEquals(Codec.GZIP, CodecSelector.choose("text/plain", new byte[0], 0).codec());
+        assertEquals(Codec.STORED, CodecSelector.choose("image/png", new byte[0], 0).codec());
+    }
+
+    private static CodecSelector.Choice choose(String contentType, byte[] sample) {
+        return CodecSelector.choose(contentType, sample, sample.length);
+    }
+}
@@ -0,0 +1,99 @@
+package com.devops.stratusvault.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GzipSegmentsTest {
+
+    private static final int BLOCK_SIZE = 4096;
+
+    @Test
+    void combineCrc32MatchesChecksumOfConcatenation() {
+        byte[] data = randomBytes(10_000, 1);
+        for (int split : new int[]{0, 1, 7, 4096, 9_999, 10_000}) {
+            long crcA = crc32(Arrays.copyOfRange(data, 0, split));
+            long crcB = crc32(Arrays.copyOfRange(data, split, data.length));
+            assertEquals(crc32(data), GzipSegments.combineCrc32(crcA, crcB, data.length - split), "split at " + split);
+        }
+    }
+
+    @Test
+    void combineCrc32WithEmptySecondPartKeepsFirst() {
+        long crc = crc32("stratusvault".getBytes());
+        assertEquals(crc, GzipSegments.combineCrc32(crc, 0, 0));
+    }
+
+    @Test
+    void headerSegmentsAndTrailerFormOneGzipMember() throws IOException {
+        // Compressible and incompressible halves, split mid-block as chunked uploads are not
+        byte[] data = new byte[3 * BLOCK_SIZE + 123];
+        Arrays.fill(data, 0, data.length / 2, (byte) 'a');
+        byte[] noise = randomBytes(data.length - data.length / 2, 2);
+        System.arraycopy(noise, 0, data, data.length / 2, noise.length);
+
+        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+        assembled.write(GzipSegments.header());
+        long crc = 0;
+        int[] bounds = {0, 2 * BLOCK_SIZE, data.length};
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            int length = bounds[i + 1] - bounds[i];
+            ByteArrayOutputStream part = new ByteArrayOutputStream();
+            try (DeflateSegmentOutputStream segment = new DeflateSegmentOutputStream(part, 1024, BLOCK_SIZE)) {
+                segment.write(data, bounds[i], length);
+                segment.finish();
+                assertEquals(part.size(), segment.getCompressedSize());
+                crc = GzipSegments.combineCrc32(crc, segment.getCrc32(), length);
+            }
+            assembled.write(part.toByteArray());
+        }
+        assembled.write(GzipSegments.trailer(crc, data.length));
+
+        // GZIPInputStream verifies the trailer's CRC-32 and size
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(assembled.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void segmentBlockOffsetsAreRelativeAndRestartable() throws IOException {
+        byte[] data = randomBytes(2 * BLOCK_SIZE + 10, 3);
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        long[] offsets;
+        try (DeflateSegmentOutputStream segment = new DeflateSegmentOutputStream(part, 1024, BLOCK_SIZE)) {
+            segment.write(data);
+            segment.finish();
+            offsets = segment.getBlockOffsets();
+        }
+        assertEquals(3, offsets.length);
+        assertEquals(0, offsets[0]);
+
+        // Each block starts after a full flush, so a raw inflater can start there
+        byte[] compressed = part.toByteArray();
+        try (BlockInflaterInputStream in = new BlockInflaterInputStream(
+                new ByteArrayInputStream(compressed, (int) offsets[2], compressed.length - (int) offsets[2]), 1024)) {
+            assertArrayEquals(Arrays.copyOfRange(data, 2 * BLOCK_SIZE, data.length), in.readNBytes(10));
+        }
+    }
+
+    private static long crc32(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.devops.stratusvault.compression;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SeekIndexTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        long[] offsets = {10, 4_000, 9_000_000_000L};
+        SeekIndex decoded = SeekIndex.decode(new SeekIndex(1024, offsets).encode());
+
+        assertEquals(1024, decoded.getBlockSize());
+        for (int block = 0; block < offsets.length; block++) {
+            assertEquals(offsets[block], decoded.compressedOffset(block));
+        }
+        assertEquals(9_000_000_000L, decoded.compressedEnd(1, 12_000_000_000L));
+        assertEquals(12_000_000_000L, decoded.compressedEnd(2, 12_000_000_000L));
+    }
+
+    @Test
+    void mapsPositionsToBlocks() {
+        SeekIndex index = new SeekIndex(1024, new long[]{10, 500, 900});
+
+        assertEquals(0, index.blockOf(0));
+        assertEquals(0, index.blockOf(1023));
+        assertEquals(1, index.blockOf(1024));
+        assertEquals(2, index.blockOf(3071));
+        assertEquals(2048, index.blockStart(2));
+        assertThrows(IllegalArgumentException.class, () -> index.blockOf(3072));
+    }
+
+    @Test
+    void rejectsEmptyIndex() {
+        assertThrows(IllegalArgumentException.class, () -> new SeekIndex(1024, new long[0]));
+        assertThrows(IllegalArgumentException.class, () -> new SeekIndex(0, new long[]{10}));
+    }
+
+    @Test
+    void indexFromGzipStreamSeeksIntoEveryBlock() throws IOException {
+        int blockSize = 4096;
+        byte[] data = new byte[5 * blockSize + 77];
+        new Random(7).nextBytes(data);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        SeekIndex index;
+        try (SeekableGzipOutputStream gzip = new SeekableGzipOutputStream(compressed, 1024, blockSize)) {
+            gzip.write(data);
+            gzip.finish();
+            index = SeekIndex.decode(gzip.getSeekIndex().encode());
+        }
+
+        byte[] object = compressed.toByteArray();
+        for (int block = 0; block <= index.blockOf(data.length - 1); block++) {
+            int start = (int) index.compressedOffset(block);
+            int length = (int) Math.min(blockSize, data.length - index.blockStart(block));
+            try (BlockInflaterInputStream in = new BlockInflaterInputStream(
+                    new ByteArrayInputStream(object, start, object.length - start), 1024)) {
+                int from = (int) index.blockStart(block);
+                assertArrayEquals(Arrays.copyOfRange(data, from, from + length), in.readNBytes(length), "block " + block);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.devops.stratusvault.compression;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZipArchiveWriterTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2025, 6, 7, 8, 9, 10);
+
+    @Test
+    void gzipAndDeflatedEntriesReadBackWithZipInputStream() throws IOException {
+        byte[] text = "hello, archive\n".repeat(5_000).getBytes(StandardCharsets.UTF_8);
+        byte[] binary = randomBytes(100_000);
+        byte[] seekable = randomBytes(3 * 4096 + 5);
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(zip)) {
+            writer.putGzip("text.txt", MODIFIED, new ByteArrayInputStream(gzip(text)), text.length);
+            writer.putContent("binary.bin", MODIFIED, new ByteArrayInputStream(binary), binary.length, Deflater.BEST_SPEED);
+            writer.putGzip("dir/seekable.dat", MODIFIED, new ByteArrayInputStream(seekableGzip(seekable)), seekable.length);
+            writer.putContent("empty.txt", MODIFIED, new ByteArrayInputStream(new byte[0]), 0, Deflater.DEFAULT_COMPRESSION);
+        }
+
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            assertEntry(in, "text.txt", text);
+            assertEntry(in, "binary.bin", binary);
+            assertEntry(in, "dir/seekable.dat", seekable);
+            assertEntry(in, "empty.txt", new byte[0]);
+            assertNull(in.getNextEntry());
+        }
+    }
+
+    @Test
+    void centralDirectoryMatchesTheEntries(@TempDir Path dir) throws IOException {
+        byte[] content = "central directory".getBytes(StandardCharsets.UTF_8);
+        Path file = dir.resolve("archive.zip");
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(Files.newOutputStream(file))) {
+            writer.putGzip("résumé.txt", MODIFIED, new ByteArrayInputStream(gzip(content)), content.length);
+            writer.putContent("second.txt", null, new ByteArrayInputStream(content), content.length, Deflater.DEFAULT_COMPRESSION);
+        }
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals(2, zipFile.size());
+            ZipEntry first = zipFile.getEntry("résumé.txt");
+            assertEquals(content.length, first.getSize());
+            assertEquals(crc32(content), first.getCrc());
+            assertEquals(MODIFIED, first.getTimeLocal());
+            assertArrayEquals(content, zipFile.getInputStream(first).readAllBytes());
+            // No timestamp: the DOS epoch
+            assertEquals(1980, zipFile.getEntry("second.txt").getTimeLocal().getYear());
+        }
+    }
+
+    @Test
+    void skipsOptionalGzipHeaderFields() throws IOException {
+        byte[] content = "optional header fields".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        // FEXTRA | FNAME | FCOMMENT | FHCRC
+        gzip.write(new byte[]{0x1f, (byte) 0x8b, 8, 0x1e, 0, 0, 0, 0, 0, 3});
+        gzip.write(new byte[]{3, 0, 'a', 'b', 'c'});
+        gzip.write("name.txt\0".getBytes(StandardCharsets.ISO_8859_1));
+        gzip.write("a comment\0".getBytes(StandardCharsets.ISO_8859_1));
+        gzip.write(new byte[]{0x12, 0x34});
+        gzip.write(rawDeflate(content));
+        gzip.write(trailer(crc32(content), content.length));
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(zip)) {
+            writer.putGzip("content.txt", MODIFIED, new ByteArrayInputStream(gzip.toByteArray()), content.length);
+        }
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            assertEntry(in, "content.txt", content);
+        }
+    }
+
+    @Test
+    void rejectsBadGzipInput() throws IOException {
+        byte[] content = "size check".getBytes(StandardCharsets.UTF_8);
+        ZipArchiveWriter writer = new ZipArchiveWriter(new ByteArrayOutputStream());
+
+        assertThrows(ZipException.class, () -> writer.putGzip("a", MODIFIED,
+                new ByteArrayInputStream(content), content.length));
+        assertThrows(ZipException.class, () -> writer.putGzip("b", MODIFIED,
+                new ByteArrayInputStream(gzip(content)), content.length + 1));
+        byte[] truncated = new byte[12];
+        System.arraycopy(gzip(content), 0, truncated, 0, truncated.length);
+        assertThrows(ZipException.class, () -> writer.putGzip("c", MODIFIED,
+                new ByteArrayInputStream(truncated), content.length));
+    }
+
+    @Test
+    void noEntriesAfterFinish() throws IOException {
+        ZipArchiveWriter writer = new ZipArchiveWriter(new ByteArrayOutputStream());
+        writer.finish();
+        writer.finish();
+        assertThrows(IllegalStateException.class, () -> writer.putContent("late.txt", MODIFIED,
+                new ByteArrayInputStream(new byte[0]), 0, Deflater.DEFAULT_COMPRESSION));
+    }
+
+    @Test
+    void moreThan65535EntriesGetZip64EndRecords(@TempDir Path dir) throws IOException {
+        int count = 65_536;
+        Path file = dir.resolve("many.zip");
+        try (ZipArchiveWriter writer = new ZipArchiveWriter(Files.newOutputStream(file))) {
+            for (int i = 0; i < count; i++) {
+                writer.putContent("f" + i, MODIFIED, new ByteArrayInputStream(new byte[0]), 0, Deflater.BEST_SPEED);
+            }
+        }
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals(count, zipFile.size());
+            assertEquals(0, zipFile.getEntry("f65535").getSize());
+        }
+    }
+
+    private static void assertEntry(ZipInputStream in, String name, byte[] content) throws IOException {
+        ZipEntry entry = in.getNextEntry();
+        assertEquals(name, entry.getName());
+        assertArrayEquals(content, in.readAllBytes(), name);
+        // Sizes and CRC come from the data descriptor, read once the entry is consumed
+        assertEquals(content.length, entry.getSize(), name);
+        assertEquals(crc32(content), entry.getCrc(), name);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] seekableGzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SeekableGzipOutputStream gzip = new SeekableGzipOutputStream(out, 1024, 4096)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] rawDeflate(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            deflating.write(content);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] trailer(long crc, long size) {
+        return new byte[]{(byte) crc, (byte) (crc >>> 8), (byte) (crc >>> 16), (byte) (crc >>> 24),
+                (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)};
+    }
+
+    private static long crc32(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
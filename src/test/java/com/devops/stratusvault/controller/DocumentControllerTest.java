@@ -0,0 +1,103 @@
+package com.devops.stratusvault.controller;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.config.FirebasePrincipal;
+import com.devops.stratusvault.exceptionhandler.ApiExceptionHandler;
+import com.devops.stratusvault.service.DocumentMetrics;
+import com.devops.stratusvault.service.DocumentSearchService;
+import com.devops.stratusvault.service.DocumentService;
+import com.devops.stratusvault.service.StorageBulkhead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DocumentControllerTest {
+
+    private static final ZonedDateTime UPLOADED = ZonedDateTime.of(2025, 5, 6, 7, 8, 9, 0, ZoneOffset.UTC);
+    private static final DocumentService.DownloadableFile FILE = new DocumentService.DownloadableFile(
+            "a.txt", "text/plain", "3f2a.gz", Codec.GZIP, 100, 40, UPLOADED, null);
+    private static final DocumentService.DownloadableFile STORED_FILE = new DocumentService.DownloadableFile(
+            "a.png", "image/png", "9c1e", Codec.STORED, 100, 100, UPLOADED, null);
+
+    @Test
+    void ifRangeAcceptsOnlyTheIdentityTag() {
+        assertTrue(DocumentController.ifRangeMatches(null, FILE));
+        assertTrue(DocumentController.ifRangeMatches("\"3f2a\"", FILE));
+        assertTrue(DocumentController.ifRangeMatches(" \"3f2a\" ", FILE));
+    }
+
+    @Test
+    void ifRangeWithTheGzipTagGetsTheFullResponse() {
+        // Ranges are served from decompressed bytes; resuming a gzip body from them would corrupt it
+        assertFalse(DocumentController.ifRangeMatches("\"3f2a-gzip\"", FILE));
+    }
+
+    @Test
+    void ifRangeRejectsOtherAndWeakTags() {
+        assertFalse(DocumentController.ifRangeMatches("\"other\"", FILE));
+        assertFalse(DocumentController.ifRangeMatches("\"3f2a-br\"", FILE));
+        assertFalse(DocumentController.ifRangeMatches("W/\"3f2a\"", FILE));
+    }
+
+    @Test
+    void ifRangeDateMustMatchTheUploadExactly() {
+        DateTimeFormatter http = DateTimeFormatter.RFC_1123_DATE_TIME;
+        assertTrue(DocumentController.ifRangeMatches(UPLOADED.format(http), STORED_FILE));
+        assertFalse(DocumentController.ifRangeMatches(UPLOADED.plusSeconds(1).format(http), STORED_FILE));
+        assertFalse(DocumentController.ifRangeMatches("yesterday", STORED_FILE));
+    }
+
+    @Test
+    void ifRangeDateNeverMatchesGzipFiles() {
+        // The earlier response may have been the gzip body, which a date cannot rule out
+        assertFalse(DocumentController.ifRangeMatches(UPLOADED.format(DateTimeFormatter.RFC_1123_DATE_TIME), FILE));
+    }
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void uploadUnderAFullBulkheadIsServiceUnavailable() throws Exception {
+        // No write permits at all, so the first storage write is turned away
+        StorageBulkhead bulkhead = new StorageBulkhead(1, 0, Duration.ofMillis(1));
+        DocumentService documentService = mock(DocumentService.class);
+        when(documentService.uploadDocument(any(), anyString(), anyString()))
+                .thenAnswer(invocation -> bulkhead.call(StorageBulkhead.Kind.WRITE, () -> null));
+        MockMvc mvc = MockMvcBuilders
+                .standaloneSetup(new DocumentController(documentService, mock(DocumentSearchService.class),
+                        mock(DocumentMetrics.class), 8, 100))
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+        FirebasePrincipal principal = new FirebasePrincipal("uid-1", "a@example.com");
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+        mvc.perform(multipart("/api/documents/upload").file(new MockMultipartFile("file", "a.txt", "text/plain", new byte[]{1})))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message").value("Storage is busy (writes), please retry"));
+    }
+}
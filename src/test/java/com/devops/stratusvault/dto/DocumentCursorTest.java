@@ -0,0 +1,66 @@
+package com.devops.stratusvault.dto;
+
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        DocumentCursor cursor = new DocumentCursor(LocalDateTime.of(2025, 3, 4, 5, 6, 7, 123_456_789), 42);
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), "URL-safe and unpadded: " + encoded);
+        assertEquals(cursor, DocumentCursor.decode(encoded));
+    }
+
+    @Test
+    void startRoundTrips() {
+        assertEquals(DocumentCursor.START, DocumentCursor.decode(DocumentCursor.START.encode()));
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertEquals(DocumentCursor.START, DocumentCursor.decode(null));
+        assertEquals(DocumentCursor.START, DocumentCursor.decode(""));
+        assertEquals(DocumentCursor.START, DocumentCursor.decode("  "));
+    }
+
+    @Test
+    void pointsAfterTheLastDocumentOfAPage() {
+        LocalDateTime uploaded = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        DocumentResponseDTO last = new DocumentResponseDTO(7L, "a.txt", "path", 1L, 1L, "text/plain", uploaded,
+                new UserResponseDTO("uid", "a@example.com"));
+
+        assertEquals(new DocumentCursor(uploaded, 7), DocumentCursor.after(last));
+    }
+
+    @Test
+    void tamperedCursorsAreBadRequests() {
+        String valid = new DocumentCursor(LocalDateTime.of(2025, 3, 4, 5, 6, 7), 42).encode();
+        for (String tampered : new String[]{
+                "not a cursor!",                      // not base64url
+                valid + "+",                          // standard-alphabet character
+                valid.substring(0, valid.length() - 3),
+                encode("2025-03-04T05:06:07"),        // no separator
+                encode("2025-03-04T05:06:07|"),       // no id
+                encode("2025-03-04T05:06:07|forty-two"),
+                encode("2025-13-04T05:06:07|42"),     // impossible date
+                encode("|42"),
+                encode("42")}) {
+            assertThrows(BadRequestException.class, () -> DocumentCursor.decode(tampered), tampered);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,34 @@
+package com.devops.stratusvault.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlobDeletionServiceTest {
+
+    @Test
+    void firstRetryWaitsThirtySeconds() {
+        assertEquals(Duration.ofSeconds(30), BlobDeletionService.retryDelay(1));
+        // Never negative or shorter, even for rows that were never claimed
+        assertEquals(Duration.ofSeconds(30), BlobDeletionService.retryDelay(0));
+        assertEquals(Duration.ofSeconds(30), BlobDeletionService.retryDelay(-5));
+    }
+
+    @Test
+    void delayDoublesPerAttempt() {
+        assertEquals(Duration.ofMinutes(1), BlobDeletionService.retryDelay(2));
+        assertEquals(Duration.ofMinutes(2), BlobDeletionService.retryDelay(3));
+        assertEquals(Duration.ofMinutes(32), BlobDeletionService.retryDelay(7));
+    }
+
+    @Test
+    void delayIsCappedAtOneHour() {
+        assertEquals(Duration.ofHours(1), BlobDeletionService.retryDelay(8));
+        assertEquals(Duration.ofHours(1), BlobDeletionService.retryDelay(21));
+        // No shift overflow however often a row has failed
+        assertEquals(Duration.ofHours(1), BlobDeletionService.retryDelay(64));
+        assertEquals(Duration.ofHours(1), BlobDeletionService.retryDelay(Integer.MAX_VALUE));
+    }
+}
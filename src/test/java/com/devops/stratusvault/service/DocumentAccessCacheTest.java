@@ -0,0 +1,91 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.compression.Codec;
+import com.devops.stratusvault.repository.DocumentVisibilityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentAccessCacheTest {
+
+    private static final DocumentService.DownloadableFile FILE = new DocumentService.DownloadableFile(
+            "a.txt", "text/plain", "blob.gz", Codec.GZIP, 10, 5, null, null);
+
+    private final DocumentVisibilityRepository visibilityRepository = mock(DocumentVisibilityRepository.class);
+    private final DocumentAccessCache cache = new DocumentAccessCache(visibilityRepository, 100, Duration.ofMinutes(5), 100,
+            Duration.ofSeconds(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatDownloadsLoadMetadataOnce() {
+        when(visibilityRepository.isVisibleTo(1L, "reader")).thenReturn(true);
+
+        assertEquals(Optional.of(FILE), cache.readableDownload(1L, "reader", this::load));
+        assertEquals(Optional.of(FILE), cache.readableDownload(1L, "reader", this::load));
+
+        assertEquals(1, loads.get());
+        verify(visibilityRepository, times(1)).isVisibleTo(1L, "reader");
+    }
+
+    @Test
+    void unauthorizedUsersNeverReachTheMetadata() {
+        when(visibilityRepository.isVisibleTo(1L, "stranger")).thenReturn(false);
+
+        assertTrue(cache.readableDownload(1L, "stranger", this::load).isEmpty());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void missingDocumentsAreNotCached() {
+        when(visibilityRepository.isVisibleTo(2L, "reader")).thenReturn(true);
+
+        assertTrue(cache.readableDownload(2L, "reader", id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        assertEquals(Optional.of(FILE), cache.readableDownload(2L, "reader", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void deletingTheDocumentDropsItsMetadataAndDecisions() {
+        when(visibilityRepository.isVisibleTo(1L, "reader")).thenReturn(true);
+        cache.readableDownload(1L, "reader", this::load);
+
+        // Outside a transaction the invalidation runs immediately
+        cache.invalidateDocument(1L);
+        when(visibilityRepository.isVisibleTo(1L, "reader")).thenReturn(false);
+
+        assertTrue(cache.readableDownload(1L, "reader", this::load).isEmpty());
+        assertEquals(0, cache.downloadEstimatedSize());
+    }
+
+    @Test
+    void metadataExpiresLongBeforeTheDecision() throws InterruptedException {
+        DocumentAccessCache shortLived = new DocumentAccessCache(visibilityRepository, 100, Duration.ofMinutes(5), 100,
+                Duration.ofMillis(50));
+        when(visibilityRepository.isVisibleTo(1L, "reader")).thenReturn(true);
+
+        shortLived.readableDownload(1L, "reader", this::load);
+        Thread.sleep(100);
+        shortLived.readableDownload(1L, "reader", this::load);
+
+        // The metadata was reloaded; the decision was still cached
+        assertEquals(2, loads.get());
+        verify(visibilityRepository, times(1)).isVisibleTo(1L, "reader");
+    }
+
+    private Optional<DocumentService.DownloadableFile> load(long documentId) {
+        loads.incrementAndGet();
+        return Optional.of(FILE);
+    }
+}
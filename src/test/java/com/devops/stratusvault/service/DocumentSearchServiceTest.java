@@ -0,0 +1,90 @@
+package com.devops.stratusvault.service;
+
+import com.devops.stratusvault.exceptionhandler.errors.BadRequestException;
+import com.devops.stratusvault.model.Document;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentSearchServiceTest {
+
+    // Every case below is decided before the repositories are touched
+    private final DocumentSearchService service = new DocumentSearchService(null, null);
+
+    @Test
+    void escapeLikeQuotesWildcardsAndTheEscapeCharacter() {
+        assertEquals("report", DocumentSearchService.escapeLike("report"));
+        assertEquals("100\\%", DocumentSearchService.escapeLike("100%"));
+        assertEquals("file\\_name", DocumentSearchService.escapeLike("file_name"));
+        assertEquals("c:\\\\temp", DocumentSearchService.escapeLike("c:\\temp"));
+        // The backslash is escaped first, so the escapes added for % and _ are not doubled
+        assertEquals("\\\\\\%\\_", DocumentSearchService.escapeLike("\\%_"));
+    }
+
+    @Test
+    void offsetCursorRoundTrips() {
+        for (int offset : new int[]{0, 1, 50, DocumentSearchService.MAX_RESULTS}) {
+            assertEquals(offset, DocumentSearchService.decodeOffset(DocumentSearchService.encodeOffset(offset)));
+        }
+    }
+
+    @Test
+    void missingCursorStartsAtTheTop() {
+        assertEquals(0, DocumentSearchService.decodeOffset(null));
+        assertEquals(0, DocumentSearchService.decodeOffset(""));
+        assertEquals(0, DocumentSearchService.decodeOffset(" "));
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        for (String cursor : new String[]{"%%%", encode("ten"), encode("-1"), encode("99999999999")}) {
+            assertThrows(BadRequestException.class, () -> DocumentSearchService.decodeOffset(cursor), cursor);
+        }
+    }
+
+    @Test
+    void validatesLimitAndQueryLength() {
+        assertThrows(BadRequestException.class, () -> service.search("uid", "report", null, 0));
+        assertThrows(BadRequestException.class, () -> service.search("uid", "report", null, DocumentService.MAX_PAGE_SIZE + 1));
+        assertThrows(BadRequestException.class, () -> service.search("uid", null, null, 10));
+        assertThrows(BadRequestException.class, () -> service.search("uid", "  a  ", null, 10));
+        assertThrows(BadRequestException.class, () -> service.search("uid", "x".repeat(DocumentSearchService.MAX_QUERY_LENGTH + 1), null, 10));
+    }
+
+    @Test
+    void cursorPastTheResultCapIsAnEmptyLastPage() {
+        String cursor = DocumentSearchService.encodeOffset(DocumentSearchService.MAX_RESULTS);
+        DocumentService.DocumentPage page = service.search("uid", "report", cursor, 10);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void searchTextIsLowerCasedAndSkipsMissingParts() {
+        assertEquals("report.pdf application/pdf a@example.com",
+                DocumentSearchService.searchTextOf("Report.PDF", "application/pdf", "A@Example.com"));
+        assertEquals("notes a@example.com", DocumentSearchService.searchTextOf("notes", null, "a@example.com"));
+    }
+
+    @Test
+    void searchTextIsCutToTheColumnLength() {
+        String text = DocumentSearchService.searchTextOf("A".repeat(2000) + ".txt", "text/plain", "a@example.com");
+        assertEquals("a".repeat(Document.SEARCH_TEXT_LENGTH), text);
+
+        // A pair straddling the limit is dropped whole rather than split
+        String emoji = "\uD83D\uDCC4";
+        String cut = DocumentSearchService.searchTextOf("a".repeat(Document.SEARCH_TEXT_LENGTH - 1) + emoji, null, null);
+        assertEquals(Document.SEARCH_TEXT_LENGTH - 1, cut.length());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
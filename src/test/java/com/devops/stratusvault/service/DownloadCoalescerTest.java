@@ -0,0 +1,194 @@
+package com.devops.stratusvault.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownloadCoalescerTest {
+
+    private static final String KEY = "3f2a.gz";
+
+    private final byte[] object = new byte[10_000];
+    private final AtomicInteger opens = new AtomicInteger();
+    private final AtomicInteger closes = new AtomicInteger();
+    private final List<long[]> ranges = new CopyOnWriteArrayList<>();
+    private final DownloadCoalescer coalescer = new DownloadCoalescer(DataSize.ofBytes(1024), DataSize.ofMegabytes(1),
+            Duration.ofSeconds(1));
+
+    DownloadCoalescerTest() {
+        new Random(7).nextBytes(object);
+    }
+
+    @Test
+    void joinerSharesTheStorageReadAndRangeReadsOnlyThePrefix() throws IOException {
+        try (InputStream first = open()) {
+            assertArrayEquals(slice(0, 300), first.readNBytes(300));
+            try (InputStream second = open()) {
+                readAlternating(first, 300, second);
+            }
+        }
+        assertEquals(1, opens.get());
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new long[]{0, 300}, ranges.get(0));
+        assertEquals(new DownloadCoalescer.Stats(1, 1, 0), coalescer.stats());
+        assertEquals(0, coalescer.bufferedBytes());
+    }
+
+    @Test
+    void readersJoiningBeforeTheFirstByteNeedNoRangeRead() throws IOException {
+        try (InputStream first = open(); InputStream second = open()) {
+            readAlternating(first, 0, second);
+        }
+        assertEquals(1, opens.get());
+        assertTrue(ranges.isEmpty());
+        assertEquals(0, coalescer.bufferedBytes());
+    }
+
+    @Test
+    void aLoneReaderBuffersNothing() throws IOException {
+        try (InputStream only = open()) {
+            byte[] head = only.readNBytes(4000);
+            assertEquals(0, coalescer.bufferedBytes());
+            assertArrayEquals(object, concat(head, only.readAllBytes()));
+        }
+    }
+
+    @Test
+    void lastReaderLeavingAbandonsTheFlight() throws IOException {
+        InputStream first = open();
+        InputStream second = open();
+        first.readNBytes(100);
+        first.close();
+        second.close();
+        assertEquals(1, closes.get());
+        assertEquals(0, coalescer.bufferedBytes());
+
+        // Nothing left to join, so the next reader starts its own fetch
+        try (InputStream next = open()) {
+            assertArrayEquals(object, next.readAllBytes());
+        }
+        assertEquals(2, opens.get());
+    }
+
+    @Test
+    void laggingReaderIsDetachedAndReadsTheRestOnItsOwn() throws IOException {
+        try (InputStream fast = open(); InputStream slow = open()) {
+            byte[] slowHead = slow.readNBytes(10);
+            // Pulls far past the 1 KiB window while the slow reader sits at 10
+            byte[] fastAll = fast.readAllBytes();
+            assertTrue(coalescer.bufferedBytes() <= 1024);
+            assertEquals(1, coalescer.stats().detached());
+
+            assertArrayEquals(object, fastAll);
+            assertArrayEquals(object, concat(slowHead, slow.readAllBytes()));
+            assertEquals(1, opens.get());
+            assertEquals(1, ranges.size());
+            assertEquals(10, ranges.get(0)[0]);
+        }
+    }
+
+    @Test
+    void readerArrivingAfterTheEndStartsANewFetch() throws IOException {
+        try (InputStream first = open()) {
+            assertArrayEquals(object, first.readAllBytes());
+            try (InputStream late = open()) {
+                assertArrayEquals(object, late.readAllBytes());
+            }
+        }
+        assertEquals(2, opens.get());
+        assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    void concurrentReadersAllGetTheWholeObject() throws Exception {
+        List<Future<byte[]>> reads = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                reads.add(executor.submit(() -> {
+                    try (InputStream in = open()) {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[97];
+                        for (int n; (n = in.read(buffer)) != -1; ) {
+                            out.write(buffer, 0, n);
+                        }
+                        return out.toByteArray();
+                    }
+                }));
+            }
+        }
+        for (Future<byte[]> read : reads) {
+            assertArrayEquals(object, read.get());
+        }
+        assertEquals(0, coalescer.bufferedBytes());
+    }
+
+    private InputStream open() throws IOException {
+        return coalescer.open(KEY, () -> {
+            opens.incrementAndGet();
+            return new ByteArrayInputStream(object) {
+                @Override
+                public void close() {
+                    closes.incrementAndGet();
+                }
+            };
+        }, (start, endExclusive) -> {
+            ranges.add(new long[]{start, endExclusive});
+            int end = (int) Math.min(endExclusive, object.length);
+            return new ByteArrayInputStream(object, (int) start, end - (int) start);
+        });
+    }
+
+    /**
+     * Reads both streams to the end in alternating steps of equal size, so neither falls out of the
+     * window, and checks that each got the whole object from where it started.
+     */
+    private void readAlternating(InputStream first, int firstStart, InputStream second) throws IOException {
+        ByteArrayOutputStream fromFirst = new ByteArrayOutputStream();
+        ByteArrayOutputStream fromSecond = new ByteArrayOutputStream();
+        boolean firstDone = false;
+        boolean secondDone = false;
+        while (!firstDone || !secondDone) {
+            if (!firstDone) {
+                byte[] chunk = first.readNBytes(200);
+                fromFirst.writeBytes(chunk);
+                firstDone = chunk.length < 200;
+            }
+            if (!secondDone) {
+                byte[] chunk = second.readNBytes(200);
+                fromSecond.writeBytes(chunk);
+                secondDone = chunk.length < 200;
+            }
+        }
+        assertArrayEquals(object, fromSecond.toByteArray());
+        assertArrayEquals(slice(firstStart, object.length), fromFirst.toByteArray());
+    }
+
+    private byte[] slice(int from, int to) {
+        return Arrays.copyOfRange(object, from, to);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}